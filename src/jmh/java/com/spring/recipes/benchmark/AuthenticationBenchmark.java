@@ -0,0 +1,94 @@
+package com.spring.recipes.benchmark;
+
+import com.spring.recipes.entities.user.User;
+import com.spring.recipes.repo.UserRepository;
+import com.spring.recipes.security.CachingAuthenticationProvider;
+import com.spring.recipes.security.CredentialCache;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating a user: loading them through the {@link org.springframework.security.core.userdetails.UserDetailsService},
+ * verifying their password, and the whole HTTP Basic authentication with and without the
+ * {@link com.spring.recipes.security.CredentialCache}.
+ *
+ * @author Alex Giazitzis
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthenticationBenchmark {
+
+    private static final String EMAIL    = "benchmark@recipes.com";
+    private static final String PASSWORD = "benchmark-password";
+
+    ConfigurableApplicationContext context;
+    UserDetailsService             userDetailsService;
+    PasswordEncoder                passwordEncoder;
+    String                         hash;
+    DaoAuthenticationProvider      uncachedProvider;
+    DaoAuthenticationProvider      cachedProvider;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        context = BenchmarkData.start("authentication");
+        userDetailsService = context.getBean(UserDetailsService.class);
+        passwordEncoder = context.getBean(PasswordEncoder.class);
+        hash = passwordEncoder.encode(PASSWORD);
+
+        User user = new User();
+        user.setEmail(EMAIL);
+        user.setPassword(hash);
+        user.setRole("ROLE_USER");
+        context.getBean(UserRepository.class).save(user);
+
+        uncachedProvider = new DaoAuthenticationProvider();
+        uncachedProvider.setUserDetailsService(userDetailsService);
+        uncachedProvider.setPasswordEncoder(passwordEncoder);
+
+        cachedProvider = new CachingAuthenticationProvider(context.getBean(CredentialCache.class));
+        cachedProvider.setUserDetailsService(userDetailsService);
+        cachedProvider.setPasswordEncoder(passwordEncoder);
+
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+
+        context.close();
+
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsername() {
+        return userDetailsService.loadUserByUsername(EMAIL);
+    }
+
+    @Benchmark
+    public boolean verifyPassword() {
+        return passwordEncoder.matches(PASSWORD, hash);
+    }
+
+    @Benchmark
+    public Authentication authenticateUncached() {
+        return uncachedProvider.authenticate(new UsernamePasswordAuthenticationToken(EMAIL, PASSWORD));
+    }
+
+    @Benchmark
+    public Authentication authenticateCached() {
+        return cachedProvider.authenticate(new UsernamePasswordAuthenticationToken(EMAIL, PASSWORD));
+    }
+
+}
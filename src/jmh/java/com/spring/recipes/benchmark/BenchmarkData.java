@@ -0,0 +1,122 @@
+package com.spring.recipes.benchmark;
+
+import com.spring.recipes.RecipesApplication;
+import com.spring.recipes.dto.RecipeDto;
+import com.spring.recipes.entities.Recipe;
+import com.spring.recipes.entities.converter.StringListConverter;
+import com.spring.recipes.search.RecipeNameIndex;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Synthetic recipes and an in-memory application context shared by the benchmarks.
+ *
+ * @author Alex Giazitzis
+ */
+final class BenchmarkData {
+
+    static final String[] WORDS      = {"Chicken", "Garlic", "Tomato", "Basil", "Lemon", "Beef", "Mushroom", "Pasta",
+                                        "Rice", "Chocolate", "Almond", "Potato", "Salmon", "Spinach", "Honey", "Pepper"};
+    static final String[] KINDS      = {"Soup", "Pie", "Salad", "Stew", "Cake", "Curry", "Risotto", "Roast"};
+    static final String[] CATEGORIES = {"dessert", "main", "starter", "soup", "salad", "breakfast", "drink", "snack"};
+
+    static final StringListConverter CONVERTER = new StringListConverter();
+
+    private static final LocalDateTime NOW        = LocalDateTime.of(2022, 1, 1, 12, 0);
+    private static final int           CHUNK_SIZE = 10_000;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Starts the application without a web server, on a fresh in-memory database. The search result cache is turned
+     * off, so the benchmarks measure the searches themselves.
+     * @param database name of the in-memory database.
+     * @return the started {@link org.springframework.context.ConfigurableApplicationContext}.
+     */
+    static ConfigurableApplicationContext start(final String database) {
+
+        return new SpringApplicationBuilder(RecipesApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .properties("spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                            "spring.jpa.hibernate.ddl-auto=create-drop",
+                            "spring.sql.init.mode=never",
+                            "spring.h2.console.enabled=false",
+                            "recipes.search.result-cache.enabled=false",
+                            "logging.level.root=warn")
+                .run();
+
+    }
+
+    static String name(final int i) {
+        return WORDS[i % WORDS.length] + " " + WORDS[(i / WORDS.length) % WORDS.length] + " " + KINDS[i % KINDS.length];
+    }
+
+    static String category(final int i) {
+        return CATEGORIES[i % CATEGORIES.length];
+    }
+
+    static List<String> ingredients(final int i) {
+        return List.of("2 cloves " + WORDS[i % WORDS.length].toLowerCase(), "1 cup " + WORDS[(i + 3) % WORDS.length].toLowerCase(),
+                       "salt", "pepper");
+    }
+
+    static List<String> directions(final int i) {
+        return List.of("Prepare the " + WORDS[i % WORDS.length].toLowerCase() + ".", "Mix everything together.",
+                       "Cook for " + (10 + i % 50) + " minutes.", "Serve warm.");
+    }
+
+    static Recipe recipe(final int i) {
+
+        Recipe recipe = new Recipe();
+        recipe.setId((long) i);
+        recipe.setVersion(0L);
+        recipe.setName(name(i));
+        recipe.setCategory(category(i));
+        recipe.setCategoryKey(Recipe.toCategoryKey(category(i)));
+        recipe.setDate(NOW.minusMinutes(i));
+        recipe.setDescription("A synthetic recipe used by the benchmarks.");
+        recipe.setIngredients(new ArrayList<>(ingredients(i)));
+        recipe.setDirections(new ArrayList<>(directions(i)));
+        return recipe;
+
+    }
+
+    static RecipeDto dto(final int i) {
+        return new RecipeDto(name(i), category(i), "A synthetic recipe used by the benchmarks.", ingredients(i), directions(i));
+    }
+
+    /**
+     * Inserts {@code count} synthetic recipes straight through JDBC and indexes them.
+     * @param context started by {@link BenchmarkData#start(String)}.
+     * @param count   of recipes to insert.
+     */
+    static void seedRecipes(final ConfigurableApplicationContext context, final int count) {
+
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        for (int from = 1; from <= count; from += CHUNK_SIZE) {
+            List<Object[]> recipes = new ArrayList<>();
+            for (int i = from; i < from + CHUNK_SIZE && i <= count; i++) {
+                Recipe recipe = recipe(i);
+                recipes.add(new Object[]{recipe.getId(), recipe.getName(), recipe.getCategory(), recipe.getCategoryKey(),
+                                         Timestamp.valueOf(recipe.getDate()), recipe.getDescription(),
+                                         CONVERTER.convertToDatabaseColumn(recipe.getIngredients()),
+                                         CONVERTER.convertToDatabaseColumn(recipe.getDirections())});
+            }
+            jdbc.batchUpdate("insert into recipe (id, version, name, category, category_key, date, description, " +
+                             "ingredients_data, directions_data) values (?, 0, ?, ?, ?, ?, ?, ?, ?)", recipes);
+        }
+
+        context.getBean(RecipeNameIndex.class).build();
+
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.spring.recipes.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.spring.recipes.dto.RecipeDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Cost of serializing {@link com.spring.recipes.dto.RecipeDto}s to, and parsing them from, each of the formats the
+ * application negotiates, with an {@link com.fasterxml.jackson.databind.ObjectMapper} configured the way the
+ * application configures its own.
+ *
+ * @author Alex Giazitzis
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecipeJsonBenchmark {
+
+    private static final TypeReference<List<RecipeDto>> RECIPE_LIST = new TypeReference<>() {
+    };
+
+    @Param({"20", "100"})
+    int size;
+
+    @Param({"json", "cbor", "smile"})
+    String format;
+
+    ObjectMapper    objectMapper;
+    RecipeDto       dto;
+    List<RecipeDto> dtos;
+    byte[]          serializedDtos;
+
+    @Setup
+    public void setUp() throws IOException {
+
+        Jackson2ObjectMapperBuilder builder = "cbor".equals(format) ? Jackson2ObjectMapperBuilder.cbor()
+                                              : "smile".equals(format) ? Jackson2ObjectMapperBuilder.smile()
+                                              : Jackson2ObjectMapperBuilder.json();
+        objectMapper = builder.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        dto = BenchmarkData.dto(1);
+        dtos = IntStream.rangeClosed(1, size).mapToObj(BenchmarkData::dto).collect(Collectors.toList());
+        serializedDtos = objectMapper.writeValueAsBytes(dtos);
+
+    }
+
+    @Benchmark
+    public byte[] serializeRecipe() throws IOException {
+        return objectMapper.writeValueAsBytes(dto);
+    }
+
+    @Benchmark
+    public byte[] serializeRecipeList() throws IOException {
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public List<RecipeDto> deserializeRecipeList() throws IOException {
+        return objectMapper.readValue(serializedDtos, RECIPE_LIST);
+    }
+
+}
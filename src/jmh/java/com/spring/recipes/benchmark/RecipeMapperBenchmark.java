@@ -0,0 +1,53 @@
+package com.spring.recipes.benchmark;
+
+import com.spring.recipes.dto.RecipeDto;
+import com.spring.recipes.entities.Recipe;
+import com.spring.recipes.mapper.RecipeMapper;
+import com.spring.recipes.mapper.RecipeMapperImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Cost of wrapping {@link com.spring.recipes.entities.Recipe}s in {@link com.spring.recipes.dto.RecipeDto}s.
+ *
+ * @author Alex Giazitzis
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecipeMapperBenchmark {
+
+    @Param({"20", "100"})
+    int size;
+
+    RecipeMapper recipeMapper;
+    Recipe       recipe;
+    List<Recipe> recipes;
+
+    @Setup
+    public void setUp() {
+
+        recipeMapper = new RecipeMapperImpl();
+        recipe = BenchmarkData.recipe(1);
+        recipes = IntStream.rangeClosed(1, size).mapToObj(BenchmarkData::recipe).collect(Collectors.toList());
+
+    }
+
+    @Benchmark
+    public RecipeDto toDto() {
+        return recipeMapper.toDto(recipe);
+    }
+
+    @Benchmark
+    public List<RecipeDto> toDtoList() {
+        return recipeMapper.toDtoList(recipes);
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.spring.recipes.benchmark;
+
+import com.spring.recipes.dto.RecipeDto;
+import com.spring.recipes.search.Cursor;
+import com.spring.recipes.search.KeysetPage;
+import com.spring.recipes.services.RecipeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the {@link com.spring.recipes.services.RecipeService} searches, against an in-memory database seeded with
+ * {@code recipes} synthetic recipes. Each search fetches the first page, mapped to {@link com.spring.recipes.dto.RecipeDto}s.
+ *
+ * @author Alex Giazitzis
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecipeSearchBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    int recipes;
+
+    @Param({"20"})
+    int limit;
+
+    ConfigurableApplicationContext context;
+    RecipeService                  recipeService;
+    TransactionTemplate            transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        context = BenchmarkData.start("search_" + recipes);
+        BenchmarkData.seedRecipes(context, recipes);
+        recipeService = context.getBean(RecipeService.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(true);
+
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+
+        context.close();
+
+    }
+
+    @Benchmark
+    public KeysetPage<RecipeDto> searchByCommonName() {
+        return transactionTemplate.execute(status -> recipeService.findRecipesWithNameContaining("garlic", Cursor.FIRST, limit));
+    }
+
+    @Benchmark
+    public KeysetPage<RecipeDto> searchByRareName() {
+        return transactionTemplate.execute(status -> recipeService.findRecipesWithNameContaining("honey salmon ri", Cursor.FIRST, limit));
+    }
+
+    @Benchmark
+    public KeysetPage<RecipeDto> searchByCategory() {
+        return transactionTemplate.execute(status -> recipeService.findRecipesInCategory("Dessert", Cursor.FIRST, limit));
+    }
+
+}
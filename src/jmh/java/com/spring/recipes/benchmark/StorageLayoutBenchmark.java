@@ -0,0 +1,213 @@
+package com.spring.recipes.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of reading a page of recipes and of updating a recipe, with the ingredients and directions stored as a row each
+ * in tables of their own versus encoded in a column of the recipe row by the
+ * {@link com.spring.recipes.entities.converter.StringListConverter}. Runs the statements Hibernate issues for either
+ * layout straight through JDBC, on an in-memory H2 database, so only the storage layout differs.
+ *
+ * @author Alex Giazitzis
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StorageLayoutBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"10000", "100000"})
+    int recipes;
+
+    Connection connection;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+
+        connection = DriverManager.getConnection("jdbc:h2:mem:layout;DB_CLOSE_DELAY=-1");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table rows_recipe (id bigint primary key, version bigint, name varchar(255), " +
+                              "description varchar(255))");
+            statement.execute("create table rows_ingredients (id bigint, ingredients varchar(255))");
+            statement.execute("create table rows_directions (id bigint, directions varchar(255))");
+            statement.execute("create index rows_ingredients_id_index on rows_ingredients (id)");
+            statement.execute("create index rows_directions_id_index on rows_directions (id)");
+            statement.execute("create table compact_recipe (id bigint primary key, version bigint, name varchar(255), " +
+                              "description varchar(255), ingredients_data varbinary(1000000), directions_data varbinary(1000000))");
+        }
+
+        connection.setAutoCommit(false);
+        try (PreparedStatement rowsRecipe = connection.prepareStatement("insert into rows_recipe values (?, 0, ?, ?)");
+             PreparedStatement ingredients = connection.prepareStatement("insert into rows_ingredients values (?, ?)");
+             PreparedStatement directions = connection.prepareStatement("insert into rows_directions values (?, ?)");
+             PreparedStatement compactRecipe = connection.prepareStatement("insert into compact_recipe values (?, 0, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= recipes; i++) {
+                rowsRecipe.setLong(1, i);
+                rowsRecipe.setString(2, BenchmarkData.name(i));
+                rowsRecipe.setString(3, "A synthetic recipe used by the benchmarks.");
+                rowsRecipe.addBatch();
+                insertRows(ingredients, i, BenchmarkData.ingredients(i));
+                insertRows(directions, i, BenchmarkData.directions(i));
+
+                compactRecipe.setLong(1, i);
+                compactRecipe.setString(2, BenchmarkData.name(i));
+                compactRecipe.setString(3, "A synthetic recipe used by the benchmarks.");
+                compactRecipe.setBytes(4, BenchmarkData.CONVERTER.convertToDatabaseColumn(BenchmarkData.ingredients(i)));
+                compactRecipe.setBytes(5, BenchmarkData.CONVERTER.convertToDatabaseColumn(BenchmarkData.directions(i)));
+                compactRecipe.addBatch();
+            }
+            rowsRecipe.executeBatch();
+            ingredients.executeBatch();
+            directions.executeBatch();
+            compactRecipe.executeBatch();
+        }
+        connection.commit();
+
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop all objects");
+        }
+        connection.close();
+
+    }
+
+    @Benchmark
+    public int readPageRows() throws SQLException {
+
+        long first = firstOfRandomPage();
+        Map<Long, List<String>> ingredients = loadRows("select id, ingredients from rows_ingredients where id between ? and ?", first);
+        Map<Long, List<String>> directions = loadRows("select id, directions from rows_directions where id between ? and ?", first);
+
+        int size = 0;
+        try (PreparedStatement statement = connection.prepareStatement("select id, version, name, description from rows_recipe " +
+                                                                       "where id between ? and ?")) {
+            statement.setLong(1, first);
+            statement.setLong(2, first + PAGE_SIZE - 1);
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    size += ingredients.get(rows.getLong(1)).size() + directions.get(rows.getLong(1)).size();
+                }
+            }
+        }
+        connection.commit();
+        return size;
+
+    }
+
+    @Benchmark
+    public int readPageCompact() throws SQLException {
+
+        long first = firstOfRandomPage();
+
+        int size = 0;
+        try (PreparedStatement statement = connection.prepareStatement("select id, version, name, description, ingredients_data, " +
+                                                                       "directions_data from compact_recipe where id between ? and ?")) {
+            statement.setLong(1, first);
+            statement.setLong(2, first + PAGE_SIZE - 1);
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    size += BenchmarkData.CONVERTER.convertToEntityAttribute(rows.getBytes(5)).size()
+                            + BenchmarkData.CONVERTER.convertToEntityAttribute(rows.getBytes(6)).size();
+                }
+            }
+        }
+        connection.commit();
+        return size;
+
+    }
+
+    /**
+     * Updates a recipe the way Hibernate updates an element collection that changed: the recipe row is updated and the
+     * rows of its collections are all deleted and inserted again.
+     */
+    @Benchmark
+    public int updateRows() throws SQLException {
+
+        int id = ThreadLocalRandom.current().nextInt(1, recipes + 1);
+        int updated;
+        try (PreparedStatement recipe = connection.prepareStatement("update rows_recipe set version = version + 1, name = ? where id = ?");
+             PreparedStatement deleteIngredients = connection.prepareStatement("delete from rows_ingredients where id = ?");
+             PreparedStatement deleteDirections = connection.prepareStatement("delete from rows_directions where id = ?");
+             PreparedStatement ingredients = connection.prepareStatement("insert into rows_ingredients values (?, ?)");
+             PreparedStatement directions = connection.prepareStatement("insert into rows_directions values (?, ?)")) {
+            recipe.setString(1, BenchmarkData.name(id + 1));
+            recipe.setLong(2, id);
+            updated = recipe.executeUpdate();
+
+            deleteIngredients.setLong(1, id);
+            deleteIngredients.executeUpdate();
+            deleteDirections.setLong(1, id);
+            deleteDirections.executeUpdate();
+            insertRows(ingredients, id, BenchmarkData.ingredients(id + 1));
+            insertRows(directions, id, BenchmarkData.directions(id + 1));
+            ingredients.executeBatch();
+            directions.executeBatch();
+        }
+        connection.commit();
+        return updated;
+
+    }
+
+    @Benchmark
+    public int updateCompact() throws SQLException {
+
+        int id = ThreadLocalRandom.current().nextInt(1, recipes + 1);
+        int updated;
+        try (PreparedStatement recipe = connection.prepareStatement("update compact_recipe set version = version + 1, name = ?, " +
+                                                                    "ingredients_data = ?, directions_data = ? where id = ?")) {
+            recipe.setString(1, BenchmarkData.name(id + 1));
+            recipe.setBytes(2, BenchmarkData.CONVERTER.convertToDatabaseColumn(BenchmarkData.ingredients(id + 1)));
+            recipe.setBytes(3, BenchmarkData.CONVERTER.convertToDatabaseColumn(BenchmarkData.directions(id + 1)));
+            recipe.setLong(4, id);
+            updated = recipe.executeUpdate();
+        }
+        connection.commit();
+        return updated;
+
+    }
+
+    private long firstOfRandomPage() {
+        return ThreadLocalRandom.current().nextInt(1, recipes - PAGE_SIZE + 2);
+    }
+
+    private Map<Long, List<String>> loadRows(final String sql, final long first) throws SQLException {
+
+        Map<Long, List<String>> values = new HashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, first);
+            statement.setLong(2, first + PAGE_SIZE - 1);
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    values.computeIfAbsent(rows.getLong(1), id -> new ArrayList<>()).add(rows.getString(2));
+                }
+            }
+        }
+        return values;
+
+    }
+
+    private static void insertRows(final PreparedStatement statement, final long id, final List<String> values)
+            throws SQLException {
+
+        for (String value : values) {
+            statement.setLong(1, id);
+            statement.setString(2, value);
+            statement.addBatch();
+        }
+
+    }
+
+}
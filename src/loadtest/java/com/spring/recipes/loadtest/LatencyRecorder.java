@@ -0,0 +1,65 @@
+package com.spring.recipes.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records the latencies and outcomes of the requests of one {@link Operation}.
+ *
+ * @author Alex Giazitzis
+ */
+final class LatencyRecorder {
+
+    private final AtomicLong errors  = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private long[] latencies = new long[1024];
+    private int    count;
+
+    synchronized void record(final long latencyNanos) {
+
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+
+    }
+
+    void error() {
+        errors.incrementAndGet();
+    }
+
+    void drop() {
+        dropped.incrementAndGet();
+    }
+
+    long errors() {
+        return errors.get();
+    }
+
+    long dropped() {
+        return dropped.get();
+    }
+
+    /**
+     * @return the recorded latencies in nanoseconds, sorted in ascending order.
+     */
+    synchronized long[] sorted() {
+
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return sorted;
+
+    }
+
+    static double percentileMillis(final long[] sorted, final double percentile) {
+
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1_000_000.0;
+
+    }
+
+}
@@ -0,0 +1,349 @@
+package com.spring.recipes.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spring.recipes.RecipesApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end load generator for the {@link com.spring.recipes.controllers.ApiController}. Boots the application on an
+ * embedded in-memory H2 database and a random port, seeds it over HTTP with {@link SyntheticDataset} users and recipes,
+ * then drives a weighted mix of {@link Operation}s at a fixed rate and reports the latency percentiles and throughput
+ * of each endpoint. Run with {@code ./mvnw -P loadtest verify}, passing {@link LoadTestOptions} through
+ * {@code -Dloadtest.args="rate=500 duration=120"}.
+ * <p>
+ * Requests are started on a fixed schedule regardless of how long the previous ones take, and latencies are measured
+ * from the time a request was scheduled to be sent, so a stalled server shows up in the percentiles instead of slowing
+ * the generator down.
+ *
+ * @author Alex Giazitzis
+ */
+public final class LoadTest {
+
+    private static final int SEED_CHUNK_SIZE = 1_000;
+
+    private final LoadTestOptions                 options;
+    private final HttpClient                      client;
+    private final ObjectMapper                    objectMapper = new ObjectMapper();
+    private final SyntheticDataset                dataset      = new SyntheticDataset(42);
+    private final List<Account>                   accounts     = new CopyOnWriteArrayList<>();
+    private final Map<Operation, LatencyRecorder> recorders    = new EnumMap<>(Operation.class);
+    private final AtomicInteger                   registered   = new AtomicInteger();
+    private final String                          baseUrl;
+
+    private LoadTest(final LoadTestOptions options, final int port) {
+
+        this.options = options;
+        this.baseUrl = "http://localhost:" + port + "/api";
+        this.client = HttpClient.newBuilder()
+                                .version(HttpClient.Version.HTTP_1_1)
+                                .connectTimeout(Duration.ofSeconds(10))
+                                .executor(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()))
+                                .build();
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new LatencyRecorder());
+        }
+
+    }
+
+    public static void main(final String[] args) throws Exception {
+
+        LoadTestOptions options = LoadTestOptions.parse(args);
+
+        try (ConfigurableApplicationContext context = start()) {
+            int port = Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+            LoadTest loadTest = new LoadTest(options, port);
+
+            long seedStart = System.nanoTime();
+            loadTest.seed();
+            System.out.printf("Seeded %d users and %d recipes in %d s%n", options.users, options.recipes,
+                              TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - seedStart));
+
+            long elapsed = loadTest.drive();
+            loadTest.report(elapsed);
+        }
+
+        System.exit(0);
+
+    }
+
+    /**
+     * Starts the application on a random port and a fresh in-memory database. All the traffic comes from a single
+     * address, so the rate limits are turned off.
+     */
+    private static ConfigurableApplicationContext start() {
+
+        return new SpringApplicationBuilder(RecipesApplication.class)
+                .logStartupInfo(false)
+                .properties("server.port=0",
+                            "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                            "spring.jpa.hibernate.ddl-auto=create-drop",
+                            "spring.sql.init.mode=never",
+                            "spring.h2.console.enabled=false",
+                            "recipes.rate-limit.enabled=false",
+                            "logging.level.root=warn")
+                .run();
+
+    }
+
+    /**
+     * Registers the users and imports the recipes through POST /api/recipe/batch, spread evenly over the users.
+     */
+    private void seed() throws IOException, InterruptedException {
+
+        for (int i = 0; i < options.users; i++) {
+            Account account = new Account(SyntheticDataset.email(registered.getAndIncrement()));
+            expect(client.send(register(account), HttpResponse.BodyHandlers.discarding()), 200);
+            accounts.add(account);
+        }
+
+        int remaining = options.recipes;
+        for (int i = 0; remaining > 0; i++) {
+            Account account = accounts.get(i % accounts.size());
+            int count = Math.min(SEED_CHUNK_SIZE, remaining);
+
+            StringBuilder body = new StringBuilder();
+            for (int j = 0; j < count; j++) {
+                body.append(objectMapper.writeValueAsString(dataset.recipe())).append('\n');
+            }
+            HttpResponse<String> response = client.send(account.request("/recipe/batch")
+                                                               .header("Content-Type", "application/x-ndjson")
+                                                               .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                                                               .build(),
+                                                        HttpResponse.BodyHandlers.ofString());
+            expect(response, 200);
+            for (JsonNode result : objectMapper.readTree(response.body())) {
+                if (result.has("id")) {
+                    account.recipes.add(result.get("id").asLong());
+                }
+            }
+            remaining -= count;
+        }
+
+    }
+
+    /**
+     * Starts requests at the configured rate for the configured duration, then waits for the pending ones.
+     * @return the nanoseconds the traffic took, from the first request to the last response.
+     */
+    private long drive() throws InterruptedException {
+
+        Operation[] schedule = schedule();
+        Semaphore inFlight = new Semaphore(options.inFlight);
+        Random random = new Random(7);
+        long interval = TimeUnit.SECONDS.toNanos(1) / options.rate;
+        long total = (long) options.rate * options.duration;
+        long start = System.nanoTime();
+
+        for (long i = 0; i < total; i++) {
+            long intended = start + i * interval;
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Operation operation = schedule[random.nextInt(schedule.length)];
+            LatencyRecorder recorder = recorders.get(operation);
+            if (!inFlight.tryAcquire()) {
+                recorder.drop();
+                continue;
+            }
+
+            Account account = accounts.get(random.nextInt(accounts.size()));
+            HttpRequest request = request(operation, account, random);
+            if (request == null) {
+                inFlight.release();
+                recorder.drop();
+                continue;
+            }
+            client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                  .whenComplete((response, error) -> {
+                      long latency = System.nanoTime() - intended;
+                      inFlight.release();
+                      if (error != null || response.statusCode() >= 400) {
+                          recorder.error();
+                      } else {
+                          recorder.record(latency);
+                          onSuccess(operation, account, request, response);
+                      }
+                  });
+        }
+
+        inFlight.acquire(options.inFlight);
+        return System.nanoTime() - start;
+
+    }
+
+    /**
+     * Expands the weights of the mix into a table that a uniformly random index picks operations from.
+     */
+    private Operation[] schedule() {
+
+        List<Operation> schedule = new ArrayList<>();
+        options.mix.forEach((operation, weight) -> schedule.addAll(Collections.nCopies(weight, operation)));
+        if (schedule.isEmpty()) {
+            throw new IllegalArgumentException("The mix must give at least one operation a positive weight.");
+        }
+        return schedule.toArray(new Operation[0]);
+
+    }
+
+    /**
+     * Builds the next request of an operation, on behalf of {@code account} and against one of its recipes.
+     * @return the request, or null if there is no recipe left to run the operation against.
+     */
+    private HttpRequest request(final Operation operation, final Account account, final Random random) {
+
+        switch (operation) {
+            case REGISTER:
+                return register(new Account(SyntheticDataset.email(registered.getAndIncrement())));
+            case POST:
+                return account.request("/recipe/new").header("Content-Type", "application/json").POST(json(dataset.recipe())).build();
+            case SEARCH:
+                String query = random.nextBoolean() ? "name=" + dataset.nameFragment() : "category=" + dataset.category();
+                return account.request("/recipe/search?" + query).GET().build();
+            default:
+                break;
+        }
+
+        Long id = operation == Operation.DELETE ? account.takeRecipe(random) : account.pickRecipe(random);
+        if (id == null) {
+            return null;
+        }
+        switch (operation) {
+            case GET:
+                return account.request("/recipe/" + id).GET().build();
+            case UPDATE:
+                return account.request("/recipe/" + id).header("Content-Type", "application/json").PUT(json(dataset.recipe())).build();
+            case DELETE:
+                return account.request("/recipe/" + id).DELETE().build();
+            default:
+                throw new IllegalStateException("Unexpected operation " + operation);
+        }
+
+    }
+
+    /**
+     * Keeps the accounts and their recipes in sync with what the server accepted, so later requests target them.
+     */
+    private void onSuccess(final Operation operation, final Account account, final HttpRequest request,
+                           final HttpResponse<String> response) {
+
+        if (operation == Operation.REGISTER) {
+            String email = request.headers().firstValue(Account.EMAIL_HEADER).orElseThrow();
+            accounts.add(new Account(email));
+        } else if (operation == Operation.POST) {
+            try {
+                account.recipes.add(objectMapper.readTree(response.body()).get("id").asLong());
+            } catch (IOException e) {
+                recorders.get(operation).error();
+            }
+        }
+
+    }
+
+    private HttpRequest register(final Account account) {
+
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/register"))
+                          .header("Content-Type", "application/json")
+                          .header(Account.EMAIL_HEADER, account.email)
+                          .POST(json(Map.of("email", account.email, "password", SyntheticDataset.PASSWORD)))
+                          .build();
+
+    }
+
+    private HttpRequest.BodyPublisher json(final Object body) {
+
+        try {
+            return HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+    }
+
+    private void report(final long elapsed) {
+
+        double seconds = elapsed / 1e9;
+        System.out.printf("%n%-24s %9s %7s %7s %10s %10s %10s %10s%n",
+                          "endpoint", "ok", "errors", "dropped", "req/s", "p50 ms", "p99 ms", "p999 ms");
+        for (Operation operation : Operation.values()) {
+            LatencyRecorder recorder = recorders.get(operation);
+            long[] latencies = recorder.sorted();
+            System.out.printf("%-24s %9d %7d %7d %10.1f %10.2f %10.2f %10.2f%n",
+                              operation.route, latencies.length, recorder.errors(), recorder.dropped(),
+                              latencies.length / seconds,
+                              LatencyRecorder.percentileMillis(latencies, 50),
+                              LatencyRecorder.percentileMillis(latencies, 99),
+                              LatencyRecorder.percentileMillis(latencies, 99.9));
+        }
+
+    }
+
+    private static void expect(final HttpResponse<?> response, final int status) {
+
+        if (response.statusCode() != status) {
+            throw new IllegalStateException("Seeding failed with " + response.statusCode() + " from " + response.uri());
+        }
+
+    }
+
+    /**
+     * A registered user, with the ids of the recipes it owns.
+     */
+    private final class Account {
+
+        static final String EMAIL_HEADER = "X-Load-Test-User";
+
+        final String     email;
+        final String     authorization;
+        final List<Long> recipes = Collections.synchronizedList(new ArrayList<>());
+
+        Account(final String email) {
+
+            this.email = email;
+            this.authorization = "Basic " + Base64.getEncoder().encodeToString(
+                    (email + ":" + SyntheticDataset.PASSWORD).getBytes(StandardCharsets.UTF_8));
+
+        }
+
+        HttpRequest.Builder request(final String path) {
+
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                              .header("Authorization", authorization)
+                              .header(EMAIL_HEADER, email);
+
+        }
+
+        Long pickRecipe(final Random random) {
+
+            synchronized (recipes) {
+                return recipes.isEmpty() ? null : recipes.get(random.nextInt(recipes.size()));
+            }
+
+        }
+
+        Long takeRecipe(final Random random) {
+
+            synchronized (recipes) {
+                return recipes.isEmpty() ? null : recipes.remove(random.nextInt(recipes.size()));
+            }
+
+        }
+
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.spring.recipes.loadtest;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Options of a {@link LoadTest} run, parsed from {@code key=value} arguments.
+ * <pre>
+ * users=50        users registered while seeding
+ * recipes=10000   recipes imported while seeding, spread over the users
+ * rate=200        requests started per second, whatever the latency of the previous ones
+ * duration=60     seconds the traffic is driven for
+ * inFlight=2000   requests allowed to be pending at once, further ones are counted as dropped
+ * mix=get=50,search=25,post=10,update=8,delete=2,register=5
+ * </pre>
+ *
+ * @author Alex Giazitzis
+ */
+final class LoadTestOptions {
+
+    int                     users    = 50;
+    int                     recipes  = 10_000;
+    int                     rate     = 200;
+    int                     duration = 60;
+    int                     inFlight = 2_000;
+    Map<Operation, Integer> mix      = parseMix("get=50,search=25,post=10,update=8,delete=2,register=5");
+
+    static LoadTestOptions parse(final String[] args) {
+
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected key=value but got " + arg);
+            }
+            values.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+
+        LoadTestOptions options = new LoadTestOptions();
+        options.users = Integer.parseInt(values.getOrDefault("users", String.valueOf(options.users)));
+        options.recipes = Integer.parseInt(values.getOrDefault("recipes", String.valueOf(options.recipes)));
+        options.rate = Integer.parseInt(values.getOrDefault("rate", String.valueOf(options.rate)));
+        options.duration = Integer.parseInt(values.getOrDefault("duration", String.valueOf(options.duration)));
+        options.inFlight = Integer.parseInt(values.getOrDefault("inFlight", String.valueOf(options.inFlight)));
+        if (values.containsKey("mix")) {
+            options.mix = parseMix(values.get("mix"));
+        }
+        return options;
+
+    }
+
+    private static Map<Operation, Integer> parseMix(final String mix) {
+
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split("=");
+            weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+
+    }
+
+}
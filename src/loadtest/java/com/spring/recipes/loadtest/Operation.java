@@ -0,0 +1,23 @@
+package com.spring.recipes.loadtest;
+
+/**
+ * The kinds of requests a {@link LoadTest} sends, one per endpoint of the {@link com.spring.recipes.controllers.ApiController}.
+ *
+ * @author Alex Giazitzis
+ */
+enum Operation {
+
+    REGISTER("POST /api/register"),
+    POST("POST /api/recipe/new"),
+    GET("GET /api/recipe/{id}"),
+    SEARCH("GET /api/recipe/search"),
+    UPDATE("PUT /api/recipe/{id}"),
+    DELETE("DELETE /api/recipe/{id}");
+
+    final String route;
+
+    Operation(final String route) {
+        this.route = route;
+    }
+
+}
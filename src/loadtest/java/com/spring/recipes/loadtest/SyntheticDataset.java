@@ -0,0 +1,110 @@
+package com.spring.recipes.loadtest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates users and recipes that look like the ones posted by real users: names of two to four words, a skewed
+ * category distribution and a varying number of ingredients and directions. Generation is deterministic per seed, so
+ * runs at the same scale work on the same dataset.
+ *
+ * @author Alex Giazitzis
+ */
+final class SyntheticDataset {
+
+    static final String[] WORDS      = {"Chicken", "Garlic", "Tomato", "Basil", "Lemon", "Beef", "Mushroom", "Pasta",
+                                        "Rice", "Chocolate", "Almond", "Potato", "Salmon", "Spinach", "Honey", "Pepper",
+                                        "Ginger", "Coconut", "Lentil", "Pumpkin", "Apple", "Cinnamon", "Pork", "Shrimp"};
+    static final String[] KINDS      = {"Soup", "Pie", "Salad", "Stew", "Cake", "Curry", "Risotto", "Roast", "Tart",
+                                        "Bread", "Noodles", "Casserole"};
+    static final String[] CATEGORIES = {"main", "dessert", "starter", "soup", "salad", "breakfast", "drink", "snack",
+                                        "side", "sauce"};
+    static final String[] UNITS      = {"cup", "tbsp", "tsp", "g", "ml", "cloves", "pinch"};
+    static final String[] STEPS      = {"Chop the %s.", "Heat the %s in a pan.", "Whisk the %s until smooth.",
+                                        "Season the %s to taste.", "Bake the %s for %d minutes.", "Let the %s rest."};
+
+    static final String PASSWORD = "load-test-password";
+
+    private final Random random;
+
+    SyntheticDataset(final long seed) {
+        this.random = new Random(seed);
+    }
+
+    static String email(final int user) {
+        return "user" + user + "@loadtest.example";
+    }
+
+    Map<String, Object> recipe() {
+
+        Map<String, Object> recipe = new LinkedHashMap<>();
+        recipe.put("name", name());
+        recipe.put("category", category());
+        recipe.put("description", "A " + word().toLowerCase() + " dish, ready in " + (10 + random.nextInt(110)) + " minutes.");
+        recipe.put("ingredients", ingredients());
+        recipe.put("directions", directions());
+        return recipe;
+
+    }
+
+    /**
+     * @return a fragment of a recipe name, as typed into a search box.
+     */
+    String nameFragment() {
+
+        String word = word();
+        return word.substring(0, 3 + random.nextInt(word.length() - 2)).toLowerCase();
+
+    }
+
+    /**
+     * Categories follow a Zipf-like distribution, the first ones being much more common than the last.
+     */
+    String category() {
+
+        double skewed = Math.pow(random.nextDouble(), 2);
+        return CATEGORIES[(int) (skewed * CATEGORIES.length)];
+
+    }
+
+    private String name() {
+
+        int words = 1 + random.nextInt(3);
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            name.append(word()).append(' ');
+        }
+        return name.append(KINDS[random.nextInt(KINDS.length)]).toString();
+
+    }
+
+    private List<String> ingredients() {
+
+        int count = 3 + random.nextInt(10);
+        List<String> ingredients = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ingredients.add((1 + random.nextInt(4)) + " " + UNITS[random.nextInt(UNITS.length)] + " " + word().toLowerCase());
+        }
+        return ingredients;
+
+    }
+
+    private List<String> directions() {
+
+        int count = 2 + random.nextInt(8);
+        List<String> directions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            directions.add(String.format(STEPS[random.nextInt(STEPS.length)], word().toLowerCase(), 10 + random.nextInt(50)));
+        }
+        return directions;
+
+    }
+
+    private String word() {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.spring.recipes.config;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Properties under {@code recipes.security} that tune how users are authenticated by {@link WebSecConfig}.
+ *
+ * @author Alex Giazitzis
+ */
+@ConfigurationProperties(prefix = "recipes.security")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Getter
+@Setter
+public class AuthProperties {
+
+    Cache credentialCache = new Cache();
+
+    /**
+     * Role, without the {@code ROLE_} prefix, required to reach the actuator endpoints other than health.
+     */
+    String actuatorRole = "ADMIN";
+
+    Hashing hashing = new Hashing();
+
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    @Getter
+    @Setter
+    public static class Cache {
+
+        boolean  enabled = true;
+        int      maxSize = 10_000;
+        Duration ttl     = Duration.ofMinutes(5);
+
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    @Getter
+    @Setter
+    public static class Hashing {
+
+        /**
+         * Log rounds of BCrypt for new password hashes. Hashes made with another strength keep verifying.
+         */
+        int strength = 10;
+
+        /**
+         * Threads hashing the passwords of new users, off the request threads.
+         */
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+        /**
+         * Registrations waiting for a hashing thread, beyond which new ones are turned away with 503.
+         */
+        int queueCapacity = 100;
+
+    }
+
+}
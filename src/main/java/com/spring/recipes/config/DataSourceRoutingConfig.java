@@ -0,0 +1,99 @@
+package com.spring.recipes.config;
+
+import com.spring.recipes.datasource.ReadWriteRoutingDataSource;
+import com.spring.recipes.datasource.ReplicaSnapshot;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the single {@code spring.datasource} pool with a {@link com.spring.recipes.datasource.ReadWriteRoutingDataSource}
+ * when {@code recipes.datasource.routing.enabled} is set, so {@code @Transactional(readOnly = true)} methods read from
+ * the replicas of {@link DataSourceRoutingProperties} while everything else keeps using the primary database. Spring
+ * Data's own read-only repository methods are routed to the replicas too.
+ *
+ * @author Alex Giazitzis
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "recipes.datasource.routing", name = "enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(final DataSourceProperties dataSourceProperties,
+                                                        final DataSourceRoutingProperties routingProperties,
+                                                        final MeterRegistry meterRegistry) {
+
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        primary.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (DataSourceRoutingProperties.Replica replica : routingProperties.getReplicas()) {
+            HikariDataSource pool = DataSourceBuilder.create()
+                                                     .type(HikariDataSource.class)
+                                                     .driverClassName(dataSourceProperties.determineDriverClassName())
+                                                     .url(replica.getUrl())
+                                                     .username(replica.getUsername())
+                                                     .password(replica.getPassword())
+                                                     .build();
+            pool.setPoolName("replica-" + replicas.size());
+            pool.setMaximumPoolSize(replica.getMaximumPoolSize());
+            pool.setReadOnly(true);
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(pool);
+        }
+
+        return new ReadWriteRoutingDataSource(primary, replicas);
+
+    }
+
+    /**
+     * The {@link javax.sql.DataSource} used by JPA and the SQL initialization, deferring the choice of the database to
+     * the first statement, once the transaction, if any, has started.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(final ReadWriteRoutingDataSource routingDataSource) {
+
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+
+    }
+
+    /**
+     * Copies the primary database to the replicas on startup, when {@code recipes.datasource.routing.copy-primary-on-startup}
+     * is set. Declared here rather than scanned, so it runs after the migrations, which are.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "recipes.datasource.routing", name = "copy-primary-on-startup", havingValue = "true")
+    public ReplicaSnapshot replicaSnapshot(final ReadWriteRoutingDataSource routingDataSource) {
+
+        return new ReplicaSnapshot(routingDataSource);
+
+    }
+
+    /**
+     * Has Hibernate release its connection at the end of each transaction, instead of holding it for the whole
+     * request while the session is kept open for the view, so every transaction of a request is routed on its own.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer connectionReleaseCustomizer() {
+
+        return properties -> properties.put("hibernate.connection.handling_mode",
+                                            PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+
+    }
+
+}
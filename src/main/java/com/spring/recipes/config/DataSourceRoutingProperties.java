@@ -0,0 +1,57 @@
+package com.spring.recipes.config;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Properties under {@code recipes.datasource.routing} that configure the read replicas the
+ * {@link DataSourceRoutingConfig} sends read-only transactions to.
+ *
+ * @author Alex Giazitzis
+ */
+@ConfigurationProperties(prefix = "recipes.datasource.routing")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Getter
+@Setter
+public class DataSourceRoutingProperties {
+
+    /**
+     * Whether read-only transactions are routed to the replicas, instead of every transaction using the
+     * {@code spring.datasource} database.
+     */
+    boolean enabled = false;
+
+    /**
+     * Whether the replicas are overwritten with a copy of the primary database on startup, so routing can be tried out
+     * locally with separate H2 databases. Only supported by H2. The replicas then lag behind until the next startup.
+     */
+    boolean copyPrimaryOnStartup = false;
+
+    /**
+     * Replicas read-only transactions are spread over in turn.
+     */
+    List<Replica> replicas = new ArrayList<>();
+
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    @Getter
+    @Setter
+    public static class Replica {
+
+        String url;
+        String username;
+        String password;
+
+        /**
+         * Maximum number of connections pooled to the replica.
+         */
+        int maximumPoolSize = 10;
+
+    }
+
+}
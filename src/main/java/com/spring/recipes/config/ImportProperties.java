@@ -0,0 +1,30 @@
+package com.spring.recipes.config;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Properties under {@code recipes.import} that tune the bulk recipe import.
+ *
+ * @author Alex Giazitzis
+ */
+@ConfigurationProperties(prefix = "recipes.import")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Getter
+@Setter
+public class ImportProperties {
+
+    /**
+     * Number of recipes persisted per transaction.
+     */
+    int chunkSize = 500;
+
+    /**
+     * Maximum number of recipes accepted by a single import request.
+     */
+    int maxItems = 100_000;
+
+}
@@ -0,0 +1,36 @@
+package com.spring.recipes.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Lets clients exchange recipes as CBOR ({@code application/cbor}) or Smile ({@code application/x-jackson-smile})
+ * instead of JSON, picked through the {@code Accept} and {@code Content-Type} headers. Both converters are built from
+ * the {@link org.springframework.http.converter.json.Jackson2ObjectMapperBuilder} configured by Spring Boot, so they
+ * write dates and handle properties exactly like the JSON one.
+ *
+ * @author Alex Giazitzis
+ */
+@Configuration
+public class MessageConverterConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(final Jackson2ObjectMapperBuilder builder) {
+
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(final Jackson2ObjectMapperBuilder builder) {
+
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.spring.recipes.config;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Properties under {@code recipes.migration} that opt in to the data migrations run on startup.
+ *
+ * @author Alex Giazitzis
+ */
+@ConfigurationProperties(prefix = "recipes.migration")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Getter
+@Setter
+public class MigrationProperties {
+
+    CollectionTables collectionTables = new CollectionTables();
+
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    @Getter
+    @Setter
+    public static class CollectionTables {
+
+        /**
+         * Whether the ingredients and directions still held by the former collection tables are copied into the
+         * encoded columns of their recipes. The former tables are left in place.
+         */
+        boolean enabled = false;
+
+        /**
+         * Whether the former collection tables are dropped once every recipe has been copied. Can't be undone.
+         */
+        boolean dropTables = false;
+
+        /**
+         * Number of recipes copied per transaction.
+         */
+        int chunkSize = 1_000;
+
+    }
+
+}
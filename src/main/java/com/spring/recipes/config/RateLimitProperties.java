@@ -0,0 +1,71 @@
+package com.spring.recipes.config;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Properties under {@code recipes.rate-limit} that configure the request rates the
+ * {@link com.spring.recipes.ratelimit.RateLimiter} admits, per route.
+ *
+ * @author Alex Giazitzis
+ */
+@ConfigurationProperties(prefix = "recipes.rate-limit")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Getter
+@Setter
+public class RateLimitProperties {
+
+    boolean enabled = true;
+
+    /**
+     * Rate limited routes, the first one whose pattern matches a request applying to it. Requests matching none are
+     * not limited.
+     */
+    List<Route> routes = new ArrayList<>();
+
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    @Getter
+    @Setter
+    public static class Route {
+
+        /**
+         * Ant-style pattern of the request paths of the route, e.g. {@code /api/recipe/search/**}.
+         */
+        String path;
+
+        /**
+         * Limit of each authenticated user, unlimited if not set.
+         */
+        Limit user;
+
+        /**
+         * Limit of each client address, unlimited if not set.
+         */
+        Limit ip;
+
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    @Getter
+    @Setter
+    public static class Limit {
+
+        /**
+         * Sustained number of requests admitted per second.
+         */
+        double requestsPerSecond;
+
+        /**
+         * Number of requests admitted at once after a quiet period.
+         */
+        int burst = 1;
+
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.spring.recipes.config;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Properties under {@code recipes.search} that tune how the recipe search endpoints are served.
+ *
+ * @author Alex Giazitzis
+ */
+@ConfigurationProperties(prefix = "recipes.search")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Getter
+@Setter
+public class SearchProperties {
+
+    /**
+     * Number of recipes in a search page when the client doesn't ask for a specific limit.
+     */
+    int defaultPageSize = 20;
+
+    /**
+     * Hard upper bound of the recipes in a search page, whatever limit the client asks for.
+     */
+    int maxPageSize = 100;
+
+    Index nameIndex = new Index();
+
+    /**
+     * Ingredient searches can only be answered by their index, so while it is disabled or still being built they are
+     * answered with 503 Service Unavailable.
+     */
+    Index ingredientIndex = new Index();
+
+    ResultCache resultCache = new ResultCache();
+
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    @Getter
+    @Setter
+    public static class Index {
+
+        /**
+         * Whether searches are answered from an in-memory index built on startup instead of scanning the table.
+         */
+        boolean enabled = true;
+
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    @Getter
+    @Setter
+    public static class ResultCache {
+
+        /**
+         * Whether recently returned search pages are kept and returned again until a write evicts them.
+         */
+        boolean  enabled = true;
+        int      maxSize = 1_000;
+        Duration ttl     = Duration.ofMinutes(1);
+
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.spring.recipes.config;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Properties under {@code recipes.statistics} that turn on Hibernate's statistics and tune what the {@code hibernate}
+ * actuator endpoint reports.
+ *
+ * @author Alex Giazitzis
+ */
+@ConfigurationProperties(prefix = "recipes.statistics")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Getter
+@Setter
+public class StatisticsProperties {
+
+    /**
+     * Whether Hibernate generates statistics, which has a cost on every session. Without them the endpoint reports
+     * nothing but zeros.
+     */
+    boolean enabled = false;
+
+    /**
+     * Number of queries listed by total and by max execution time.
+     */
+    int topQueries = 10;
+
+    /**
+     * HQL and JPQL queries taking at least this long are kept in the slow HQL log.
+     */
+    Duration slowHqlThreshold = Duration.ofMillis(100);
+
+    /**
+     * Number of the most recent slow HQL and JPQL queries kept.
+     */
+    int slowHqlLogSize = 100;
+
+}
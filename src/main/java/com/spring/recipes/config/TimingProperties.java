@@ -0,0 +1,34 @@
+package com.spring.recipes.config;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Properties under {@code recipes.timing} that control how the phase timings of /api/** requests are reported by the
+ * {@link com.spring.recipes.timing.ServerTimingFilter}.
+ *
+ * @author Alex Giazitzis
+ */
+@ConfigurationProperties(prefix = "recipes.timing")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Getter
+@Setter
+public class TimingProperties {
+
+    /**
+     * Whether responses carry a {@code Server-Timing} header. Response bodies are buffered to measure their
+     * serialization, so it is meant for diagnosing rather than being left on.
+     */
+    boolean serverTimingHeader = false;
+
+    /**
+     * Requests taking longer than this are logged along with their phase timings.
+     */
+    Duration slowRequestThreshold = Duration.ofSeconds(1);
+
+}
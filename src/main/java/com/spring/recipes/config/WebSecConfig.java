@@ -1,8 +1,15 @@
 package com.spring.recipes.config;
 
+import com.spring.recipes.ratelimit.RateLimitFilter;
+import com.spring.recipes.ratelimit.RateLimitScope;
+import com.spring.recipes.ratelimit.RateLimiter;
+import com.spring.recipes.security.CachingAuthenticationProvider;
+import com.spring.recipes.security.CredentialCache;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
@@ -12,6 +19,7 @@ import org.springframework.security.config.annotation.web.configuration.WebSecur
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
 /**
  * The configuration class for the server's security. Overrides two configure methods from
@@ -28,9 +36,14 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 public class WebSecConfig extends WebSecurityConfigurerAdapter {
 
     UserDetailsService userDetailsService;
+    CredentialCache    credentialCache;
+    AuthProperties     authProperties;
+    RateLimiter        rateLimiter;
 
     /**
-     * Configures the service class for the Authentication process to use along with the password encoder.
+     * Configures the service class for the Authentication process to use along with the password encoder, through a
+     * {@link com.spring.recipes.security.CachingAuthenticationProvider} so recently verified credentials skip the
+     * password hashing.
      *
      * @param auth the default {@link org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder} with which the UserDetails service class and PasswordEncoder are specified.
      * @throws Exception if an error occurs when adding the UserDetailsService based authentication.
@@ -38,12 +51,19 @@ public class WebSecConfig extends WebSecurityConfigurerAdapter {
     @Override
     protected void configure(final AuthenticationManagerBuilder auth) throws Exception {
 
-        auth.userDetailsService(userDetailsService).passwordEncoder(getEncoder());
+        CachingAuthenticationProvider provider = new CachingAuthenticationProvider(credentialCache);
+        provider.setUserDetailsService(userDetailsService);
+        provider.setPasswordEncoder(getEncoder());
+
+        auth.authenticationProvider(provider);
 
     }
 
     /**
-     * Configures the accessibility of the provided endpoints based on roles and/or authentication status.
+     * Configures the accessibility of the provided endpoints based on roles and/or authentication status. The actuator
+     * health endpoint is public, while the rest of the actuator endpoints, metrics included, require the
+     * {@link AuthProperties#getActuatorRole()} role. Requests are rate limited by client address before they are
+     * authenticated, and by user after.
      *
      * @param http the default {@link org.springframework.security.config.annotation.web.builders.HttpSecurity} with which the accessibility is specified.
      * @throws Exception
@@ -52,23 +72,29 @@ public class WebSecConfig extends WebSecurityConfigurerAdapter {
     protected void configure(final HttpSecurity http) throws Exception {
 
         http.authorizeRequests()
+            .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+            .requestMatchers(EndpointRequest.toAnyEndpoint()).hasRole(authProperties.getActuatorRole())
             .mvcMatchers("/api/register").permitAll()
             .mvcMatchers("/api/**").authenticated()
             .mvcMatchers("/**").permitAll()
             .and()
             .csrf().disable().headers().frameOptions().disable()
             .and()
-            .httpBasic();
+            .httpBasic()
+            .and()
+            .addFilterBefore(new RateLimitFilter(rateLimiter, RateLimitScope.IP), BasicAuthenticationFilter.class)
+            .addFilterAfter(new RateLimitFilter(rateLimiter, RateLimitScope.USER), BasicAuthenticationFilter.class);
 
     }
 
     /**
-     * Returns an instance of a PasswordEncoder that's used for the registration and authentication of the users.
+     * Returns an instance of a PasswordEncoder that's used for the registration and authentication of the users, hashing
+     * with the strength of {@link AuthProperties.Hashing#getStrength()}.
      *
      * @return {@link org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder} instance.
      */
     @Bean
     public PasswordEncoder getEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(authProperties.getHashing().getStrength());
     }
 }
@@ -1,25 +1,51 @@
 package com.spring.recipes.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.spring.recipes.config.SearchProperties;
+import com.spring.recipes.dto.ImportResultDto;
 import com.spring.recipes.dto.RecipeDto;
+import com.spring.recipes.dto.RecipeSummaryDto;
 import com.spring.recipes.dto.RegisterUserDto;
 import com.spring.recipes.entities.Recipe;
 import com.spring.recipes.entities.user.User;
 import com.spring.recipes.entities.user.UserDetailsImpl;
+import com.spring.recipes.search.Cursor;
+import com.spring.recipes.search.KeysetPage;
+import com.spring.recipes.services.RecipeImportService;
 import com.spring.recipes.services.RecipeService;
 import com.spring.recipes.services.UserService;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
-import javax.validation.constraints.NotBlank;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
  * {@link org.springframework.web.bind.annotation.RestController} for the /api/** endpoints. Secured with {@link com.spring.recipes.config.WebSecConfig}, exposing only /api/register
@@ -33,24 +59,41 @@ import java.util.Optional;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class ApiController {
 
-    RecipeService recipeService;
-    UserService   userService;
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    RecipeService       recipeService;
+    RecipeImportService recipeImportService;
+    UserService         userService;
+    SearchProperties    searchProperties;
+    ObjectMapper        objectMapper;
 
     /**
      * POST /api/register endpoint <br>
      * Users are able to register by providing a JSON payload with a user and password fields, which are validated
      * and if found invalid, return a {@link org.springframework.http.HttpStatus} 400 Bad Request that contains a message
-     * of what was wrong.
+     * of what was wrong, as is an email registered meanwhile by a concurrent request. Returns 503 Service Unavailable
+     * while too many registrations wait for their password hash.
      *
      * @param dto {@link com.spring.recipes.dto.RegisterUserDto} that contains the user and password the user registered with.
+     * @return {@link java.util.concurrent.CompletableFuture} completed once the user is saved.
      */
     @PostMapping({"/register", "/register/"})
-    public void registerUser(@Valid @RequestBody final RegisterUserDto dto) {
+    public CompletableFuture<Void> registerUser(@Valid @RequestBody final RegisterUserDto dto) {
 
         if (userService.isEmailInUse(dto.getEmail())) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
         }
-        userService.save(dto);
+        try {
+            return userService.save(dto).exceptionally(e -> {
+                Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                if (cause instanceof DataIntegrityViolationException) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
+                }
+                throw new CompletionException(cause);
+            });
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many registrations, try again later.");
+        }
 
     }
 
@@ -85,35 +128,59 @@ public class ApiController {
     public Map<String, Long> postRecipe(@Valid @RequestBody final RecipeDto dto,
                                         @AuthenticationPrincipal UserDetailsImpl userDetails) {
 
+        return Map.of("id", recipeService.save(dto, userDetails.getId()));
+
+    }
+
+    /**
+     * POST /api/recipe/batch endpoint <br>
+     * Users can post many recipes at once, either as a JSON array of recipes of the same form as in POST /api/recipe/new,
+     * or as newline delimited JSON with one recipe per line. Invalid recipes are reported without failing the others.
+     *
+     * @param body        {@link java.io.InputStream} of the request body with the recipes.
+     * @param userDetails {@link com.spring.recipes.entities.user.UserDetailsImpl} with the users information.
+     * @return JSON array with, for each recipe read, its index in the body and either the id it was posted with or the
+     * errors that kept it from being posted.
+     * @throws IOException if the request body can't be read.
+     */
+    @PostMapping(path = {"/recipe/batch", "/recipe/batch/"},
+                 consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public List<ImportResultDto> postRecipes(final InputStream body,
+                                             @AuthenticationPrincipal UserDetailsImpl userDetails) throws IOException {
+
         Optional<User> user = userService.getUser(userDetails.getId());
         if (user.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND);
         }
-        Long id = recipeService.save(dto, user.get());
-
-        userService.update(user.get(), recipeService.getRecipe(id).orElse(null));
 
-        return Map.of("id", id);
+        return recipeImportService.importRecipes(body, user.get());
 
     }
 
     /**
      * GET /api/recipe/{id} <br>
      * Returns a JSON payload of the recipe with the specified ID, if it exists. Only registered users can access the endpoint.
+     * The version of the recipe is sent as its <em>ETag</em>, answering a matching <em>If-None-Match</em> with 304. The
+     * body is mapped from the same load of the recipe the <em>ETag</em> is taken from, so the two always agree.
      *
      * @param id of the recipe to search for.
+     * @param request the current {@link org.springframework.web.context.request.WebRequest}, checked for its conditional headers.
      * @return {@link com.spring.recipes.dto.RecipeDto} with the information of the requested recipe.
      */
     @GetMapping({"/recipe/{id}", "/recipe/{id}/"})
-    public RecipeDto getRecipe(@PathVariable final Long id) {
+    public ResponseEntity<RecipeDto> getRecipe(@PathVariable final Long id, final WebRequest request) {
 
-        Optional<RecipeDto> dto = recipeService.getRecipeDto(id);
-
-        if (dto.isEmpty()) {
+        Optional<Recipe> recipe = recipeService.getRecipe(id);
+        if (recipe.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND);
         }
 
-        return dto.get();
+        String eTag = toETag(recipe.get().getVersion());
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        return ResponseEntity.ok().eTag(eTag).body(recipeService.toDto(recipe.get()));
 
     }
 
@@ -133,7 +200,7 @@ public class ApiController {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND);
         }
 
-        if (!userService.removeRecipeFromUser(recipe.get(), userDetails.getId())) {
+        if (!userService.isRecipeOfUser(recipe.get(), userDetails.getId())) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN);
         }
 
@@ -143,15 +210,17 @@ public class ApiController {
 
     /**
      * PUT /api/recipe/{id} <br>
-     * Allows a user to update a recipe, only if the recipe they're trying to manipulate is created by them.
+     * Allows a user to update a recipe, only if the recipe they're trying to manipulate is created by them. A stale
+     * <em>If-Match</em> header is answered with 412 Precondition Failed, and the new version is returned as the <em>ETag</em>.
      * @param id of the recipe to update
      * @param dto {@link com.spring.recipes.dto.RecipeDto} as JSON with the same structure as when posting it
      * @param userDetails {@link com.spring.recipes.entities.user.UserDetailsImpl} with the users information.
+     * @param ifMatch the <em>If-Match</em> header of the request, if any.
      */
     @PutMapping({"/recipe/{id}", "/recipe/{id}/"})
-    @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void updateRecipe(@PathVariable final Long id, @Valid @RequestBody final RecipeDto dto,
-                             @AuthenticationPrincipal UserDetailsImpl userDetails) {
+    public ResponseEntity<Void> updateRecipe(@PathVariable final Long id, @Valid @RequestBody final RecipeDto dto,
+                                             @AuthenticationPrincipal UserDetailsImpl userDetails,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) final String ifMatch) {
 
         Optional<Recipe> recipe = recipeService.getRecipe(id);
         if (recipe.isEmpty()) {
@@ -162,30 +231,278 @@ public class ApiController {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN);
         }
 
-        recipeService.update(id, dto);
+        Long version = null;
+        if (ifMatch != null) {
+            if (!matches(ifMatch, recipe.get().getVersion())) {
+                throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED);
+            }
+            version = recipe.get().getVersion();
+        }
+
+        Optional<Long> updated;
+        try {
+            updated = recipeService.update(id, dto, version);
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT, null, e);
+        }
+        if (updated.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+
+        return ResponseEntity.noContent().eTag(toETag(updated.get())).build();
+
+    }
+
+    /**
+     * @param version of a recipe.
+     * @return the strong entity tag identifying the recipe at the passed version.
+     */
+    private static String toETag(final Long version) {
+
+        return "\"" + version + "\"";
+
+    }
+
+    /**
+     * Checks an <em>If-Match</em> header against the current version of a recipe, using the strong comparison, so weak
+     * entity tags never match.
+     * @param ifMatch the <em>If-Match</em> header of the request.
+     * @param version the recipe is currently at.
+     * @return whether the header is <em>*</em> or lists the entity tag of the current version.
+     */
+    private static boolean matches(final String ifMatch, final Long version) {
+
+        String eTag = toETag(version);
+        for (String candidate : ifMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || trimmed.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
 
     }
 
     /**
      * GET /api/recipe/search <br>
-     * Allows the a registered user to query the server and get a list of recipes, by passing a parameter in the request
+     * Allows the a registered user to query the server and get a page of recipes, by passing a parameter in the request
      * url of key <strong>name</strong> or <strong>category</strong>, effectively searching by either the recipe <em>name</em>
-     * containing the passed value or the recipe being in the <em>category</em> specified.
-     * @param pathVariables name or category with a value.
+     * containing the passed value or the recipe being in the <em>category</em> specified. When more recipes exist, the
+     * <em>X-Next-Cursor</em> header holds the <strong>cursor</strong> of the next page.
+     * @param name     value the recipe names should contain.
+     * @param category value the recipe categories should be equal to.
+     * @param limit    maximum number of recipes in the page.
+     * @param cursor   opaque cursor of the previous page, if this isn't the first page.
      * @return {@link java.util.List} of {@link com.spring.recipes.dto.RecipeDto}s in a JSON format.
      */
     @GetMapping({"/recipe/search", "/recipe/search/"})
-    public List<RecipeDto> getRecipeByNameOrCategory(@Valid @RequestParam Map<@NotBlank String, @NotBlank String> pathVariables) {
+    public ResponseEntity<List<RecipeDto>> getRecipeByNameOrCategory(@RequestParam(required = false) final String name,
+                                                                     @RequestParam(required = false) final String category,
+                                                                     @RequestParam(required = false) final Integer limit,
+                                                                     @RequestParam(required = false) final String cursor) {
 
-        if (pathVariables.size() != 1) {
+        KeysetPage<RecipeDto> page;
+        if (isPresent(name) && category == null) {
+            page = recipeService.findRecipesWithNameContaining(name, toCursor(cursor), toLimit(limit));
+        } else if (isPresent(category) && name == null) {
+            page = recipeService.findRecipesInCategory(category, toCursor(cursor), toLimit(limit));
+        } else {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
-        } else if (pathVariables.containsKey("name")) {
-            return recipeService.findRecipesWithNameContaining(pathVariables.get("name"));
-        } else if (pathVariables.containsKey("category")) {
-            return recipeService.findRecipesInCategory(pathVariables.get("category"));
+        }
+
+        return toResponse(page);
+
+    }
+
+    /**
+     * GET /api/recipe/search/ingredients <br>
+     * Allows a registered user to find the recipes by their ingredients. Recipes must contain every term passed as
+     * <strong>all</strong>, at least one of the terms passed as <strong>any</strong>, and none of the terms passed as
+     * <strong>not</strong>, e.g. <em>?all=garlic,basil&amp;not=cheese</em>. Paged as in GET /api/recipe/search, and
+     * answered with 503 Service Unavailable until the ingredients are indexed.
+     * @param all    terms the recipe ingredients should all contain.
+     * @param any    terms the recipe ingredients should contain at least one of.
+     * @param none   terms the recipe ingredients should contain none of.
+     * @param limit  maximum number of recipes in the page.
+     * @param cursor opaque cursor of the previous page, if this isn't the first page.
+     * @return {@link java.util.List} of {@link com.spring.recipes.dto.RecipeDto}s in a JSON format.
+     */
+    @GetMapping({"/recipe/search/ingredients", "/recipe/search/ingredients/"})
+    public ResponseEntity<List<RecipeDto>> getRecipeByIngredients(@RequestParam(required = false) final List<String> all,
+                                                                  @RequestParam(required = false) final List<String> any,
+                                                                  @RequestParam(name = "not", required = false) final List<String> none,
+                                                                  @RequestParam(required = false) final Integer limit,
+                                                                  @RequestParam(required = false) final String cursor) {
+
+        List<String> allTerms = toTerms(all);
+        List<String> anyTerms = toTerms(any);
+        if (allTerms.isEmpty() && anyTerms.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
+        }
+
+        Optional<KeysetPage<RecipeDto>> page = recipeService.findRecipesWithIngredients(allTerms, anyTerms, toTerms(none),
+                                                                                        toCursor(cursor), toLimit(limit));
+        if (page.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Ingredients are still being indexed.");
+        }
+
+        return toResponse(page.get());
+
+    }
+
+    /**
+     * GET /api/recipe/latest <br>
+     * Returns a page of the summaries of the newest recipes, optionally created between <strong>from</strong> and
+     * <strong>to</strong>. Paged as in GET /api/recipe/search.
+     * @param from   earliest date of the recipes, inclusive.
+     * @param to     latest date of the recipes, exclusive.
+     * @param limit  maximum number of recipes in the page.
+     * @param cursor opaque cursor of the previous page, if this isn't the first page.
+     * @return {@link java.util.List} of {@link com.spring.recipes.dto.RecipeSummaryDto}s in a JSON format.
+     */
+    @GetMapping({"/recipe/latest", "/recipe/latest/"})
+    public ResponseEntity<List<RecipeSummaryDto>> getLatestRecipes(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) final LocalDateTime from,
+                                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) final LocalDateTime to,
+                                                                   @RequestParam(required = false) final Integer limit,
+                                                                   @RequestParam(required = false) final String cursor) {
+
+        return toResponse(recipeService.findLatestRecipes(from, to, toCursor(cursor), toLimit(limit)));
+
+    }
+
+    /**
+     * GET /api/recipe/search/stream <br>
+     * Same search as GET /api/recipe/search, but streams every matching recipe as a JSON array, or as newline delimited
+     * JSON if the client accepts <em>application/x-ndjson</em>.
+     * @param name     value the recipe names should contain.
+     * @param category value the recipe categories should be equal to.
+     * @param accept   the <em>Accept</em> header of the request.
+     * @return {@link org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody} writing the recipes.
+     */
+    @GetMapping({"/recipe/search/stream", "/recipe/search/stream/"})
+    public ResponseEntity<StreamingResponseBody> streamRecipeByNameOrCategory(@RequestParam(required = false) final String name,
+                                                                              @RequestParam(required = false) final String category,
+                                                                              @RequestHeader(value = HttpHeaders.ACCEPT, required = false) final String accept) {
+
+        if (isPresent(name) && category == null) {
+            return stream(accept, consumer -> recipeService.exportRecipesWithNameContaining(name, consumer));
+        } else if (isPresent(category) && name == null) {
+            return stream(accept, consumer -> recipeService.exportRecipesInCategory(category, consumer));
         }
         throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
 
     }
 
+    /**
+     * GET /api/recipe/export <br>
+     * Returns every recipe on the server, newest first, written the same way as GET /api/recipe/search/stream.
+     * @param accept the <em>Accept</em> header of the request.
+     * @return {@link org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody} writing the recipes.
+     */
+    @GetMapping({"/recipe/export", "/recipe/export/"})
+    public ResponseEntity<StreamingResponseBody> exportRecipes(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) final String accept) {
+
+        return stream(accept, recipeService::exportRecipes);
+
+    }
+
+    /**
+     * Writes the {@link com.spring.recipes.dto.RecipeDto}s passed by {@code export} straight to the response, as a JSON
+     * array or, if the client accepts it, as newline delimited JSON.
+     * @param accept the <em>Accept</em> header of the request.
+     * @param export passes each {@link com.spring.recipes.dto.RecipeDto} to write to the consumer it is given.
+     * @return {@link org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody} writing the recipes.
+     */
+    private ResponseEntity<StreamingResponseBody> stream(final String accept, final Consumer<Consumer<RecipeDto>> export) {
+
+        boolean ndjson = accept != null && MediaType.parseMediaTypes(accept).stream()
+                                                     .anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+        ObjectWriter writer = objectMapper.writerFor(RecipeDto.class)
+                                          .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingResponseBody body = out -> {
+            try (SequenceWriter sequence = ndjson ? writer.withRootValueSeparator("\n").writeValues(out)
+                                                  : writer.writeValuesAsArray(out)) {
+                export.accept(dto -> {
+                    try {
+                        sequence.write(dto);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+
+        return ResponseEntity.ok()
+                             .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                             .body(body);
+
+    }
+
+    /**
+     * @param page of recipes to return.
+     * @return the content of the page, along with the cursor of the next page, if any, in the <em>X-Next-Cursor</em> header.
+     */
+    private static <T> ResponseEntity<List<T>> toResponse(final KeysetPage<T> page) {
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        page.getNext().ifPresent(next -> response.header(NEXT_CURSOR_HEADER, next.encode()));
+        return response.body(page.getContent());
+
+    }
+
+    private static boolean isPresent(final String value) {
+
+        return value != null && !value.isBlank();
+
+    }
+
+    /**
+     * @param terms passed by the client, if any.
+     * @return {@link java.util.List} of the terms that aren't blank, empty if none were passed.
+     */
+    private static List<String> toTerms(final List<String> terms) {
+
+        if (terms == null) {
+            return List.of();
+        }
+        return terms.stream().filter(ApiController::isPresent).collect(Collectors.toList());
+
+    }
+
+    /**
+     * Decodes the cursor passed by the client, if any.
+     * @param cursor opaque cursor handed out with a previous page.
+     * @return the decoded {@link com.spring.recipes.search.Cursor}, or {@link com.spring.recipes.search.Cursor#FIRST} if none was passed.
+     */
+    private static Cursor toCursor(final String cursor) {
+
+        if (cursor == null) {
+            return Cursor.FIRST;
+        }
+        try {
+            return Cursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor.", e);
+        }
+
+    }
+
+    /**
+     * Resolves the page size, falling back to the default and never exceeding the configured maximum.
+     * @param limit the page size requested by the client, if any.
+     * @return the page size to use.
+     */
+    private int toLimit(final Integer limit) {
+
+        if (limit == null) {
+            return Math.min(searchProperties.getDefaultPageSize(), searchProperties.getMaxPageSize());
+        }
+        if (limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be positive.");
+        }
+        return Math.min(limit, searchProperties.getMaxPageSize());
+
+    }
+
 }
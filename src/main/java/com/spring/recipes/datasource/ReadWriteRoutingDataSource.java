@@ -0,0 +1,73 @@
+package com.spring.recipes.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes the connections of read-only transactions to the replicas, in turn, and every other connection to the
+ * primary database. The transaction has to be known to be read-only by the time the connection is acquired, so the
+ * data source is meant to be used behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ *
+ * @author Alex Giazitzis
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private static final String PRIMARY = "primary";
+
+    private final HikariDataSource       primary;
+    private final List<HikariDataSource> replicas;
+    private final AtomicInteger          next = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(final HikariDataSource primary, final List<HikariDataSource> replicas) {
+
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < this.replicas.size(); i++) {
+            targets.put(i, this.replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+
+        if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        return Math.floorMod(next.getAndIncrement(), replicas.size());
+
+    }
+
+    HikariDataSource getPrimary() {
+
+        return primary;
+
+    }
+
+    List<HikariDataSource> getReplicas() {
+
+        return replicas;
+
+    }
+
+    @Override
+    public void destroy() {
+
+        replicas.forEach(HikariDataSource::close);
+        primary.close();
+
+    }
+
+}
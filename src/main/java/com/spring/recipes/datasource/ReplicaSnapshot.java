@@ -0,0 +1,48 @@
+package com.spring.recipes.datasource;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Overwrites the replicas of a {@link ReadWriteRoutingDataSource} with a copy of its primary H2 database, scripted by
+ * H2's {@code SCRIPT} command, so routing can be tried out locally with separate databases. Runs on startup, once the
+ * schema of the primary database has been updated and migrated. Writes made afterwards only reach the replicas on the
+ * next copy, which makes the lag of a real replica observable too.
+ *
+ * @author Alex Giazitzis
+ */
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ReplicaSnapshot implements SmartInitializingSingleton {
+
+    ReadWriteRoutingDataSource routingDataSource;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+
+        copy();
+
+    }
+
+    /**
+     * Replaces everything held by the replicas with the current content of the primary database.
+     */
+    public void copy() {
+
+        List<String> script = new JdbcTemplate(routingDataSource.getPrimary()).queryForList("SCRIPT NOPASSWORDS NOSETTINGS",
+                                                                                           String.class);
+        for (DataSource replica : routingDataSource.getReplicas()) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(replica);
+            jdbcTemplate.execute("DROP ALL OBJECTS");
+            script.forEach(jdbcTemplate::execute);
+        }
+
+    }
+
+}
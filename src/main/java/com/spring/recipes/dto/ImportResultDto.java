@@ -0,0 +1,34 @@
+package com.spring.recipes.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+/**
+ * The outcome of importing a single recipe of a bulk import: either the id it was persisted with, or the errors that
+ * kept it from being persisted.
+ * @author Alex Giazitzis
+ */
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportResultDto {
+
+    int          index;
+    Long         id;
+    List<String> errors;
+
+    public static ImportResultDto created(final int index, final Long id) {
+        return new ImportResultDto(index, id, null);
+    }
+
+    public static ImportResultDto failed(final int index, final List<String> errors) {
+        return new ImportResultDto(index, null, errors);
+    }
+
+}
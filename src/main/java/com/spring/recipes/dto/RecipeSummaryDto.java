@@ -0,0 +1,25 @@
+package com.spring.recipes.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+/**
+ * A lightweight view of a {@link com.spring.recipes.entities.Recipe} for listing recipes, holding only what identifies
+ * and describes it at a glance. Selected straight from the recipe table, without loading the entity.
+ * @author Alex Giazitzis
+ */
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Getter
+public class RecipeSummaryDto {
+
+    Long          id;
+    String        name;
+    String        category;
+    LocalDateTime date;
+
+}
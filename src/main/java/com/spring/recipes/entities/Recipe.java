@@ -1,20 +1,29 @@
 package com.spring.recipes.entities;
 
+import com.spring.recipes.entities.converter.StringListConverter;
 import com.spring.recipes.entities.user.User;
 import com.spring.recipes.utils.Default;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * @author Alex Giazitzis
  */
 @Entity
-@Table(indexes = @Index(name = "recipe_id_index", columnList = "id"))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(indexes = {
+        @Index(name = "recipe_category_date_index", columnList = "category_key, date desc, id desc"),
+        @Index(name = "recipe_date_index", columnList = "date desc, id desc, name, category"),
+        @Index(name = "recipe_author_index", columnList = "author_id")
+})
 @NoArgsConstructor
 @AllArgsConstructor(onConstructor_ = @Default)
 @FieldDefaults(level = AccessLevel.PRIVATE)
@@ -22,12 +31,33 @@ import java.util.List;
 @Setter
 public class Recipe {
 
+    /**
+     * Number of recipes processed together when streaming many of them, matching the largest search page.
+     */
+    public static final int FETCH_BATCH_SIZE = 100;
+
+    /**
+     * Number of ids reserved with each call to {@code recipe_id_seq}, which is incremented by the same amount.
+     */
+    public static final int ID_ALLOCATION_SIZE = 1000;
+
+    /**
+     * Maximum number of bytes of the encoded ingredients or directions of a recipe.
+     */
+    private static final int ENCODED_LIST_LENGTH = 1_000_000;
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recipe_id_gen")
-    @SequenceGenerator(name = "recipe_id_gen", sequenceName = "recipe_id_seq")
+    @SequenceGenerator(name = "recipe_id_gen", sequenceName = "recipe_id_seq", allocationSize = ID_ALLOCATION_SIZE)
     Long id;
 
-    @ManyToOne
+    /**
+     * Incremented on every update, guarding against concurrent edits and sent to clients as the ETag of the recipe.
+     */
+    @Version
+    Long version;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     User author;
 
     String        name;
@@ -35,14 +65,37 @@ public class Recipe {
     LocalDateTime date;
     String        description;
 
-    @ElementCollection
-    @CollectionTable(name = "recipe_ingredients", joinColumns = @JoinColumn(name = "id"))
-    @Column(name = "ingredients")
+    /**
+     * The category case-folded by {@link Recipe#toCategoryKey(String)}, so category searches can use an index.
+     */
+    @Column(name = "category_key")
+    String categoryKey;
+
+    @Convert(converter = StringListConverter.class)
+    @Column(name = "ingredients_data", length = ENCODED_LIST_LENGTH)
     List<String> ingredients = new ArrayList<>();
 
-    @ElementCollection
-    @CollectionTable(name = "recipe_directions", joinColumns = @JoinColumn(name = "id"))
-    @Column(name = "directions")
+    @Convert(converter = StringListConverter.class)
+    @Column(name = "directions_data", length = ENCODED_LIST_LENGTH)
     List<String> directions = new ArrayList<>();
 
+    /**
+     * Case-folds a category the same way it is stored in the {@code category_key} column.
+     * @param category to normalize.
+     * @return the normalized category, or {@code null} if no category was passed.
+     */
+    public static String toCategoryKey(final String category) {
+
+        return category == null ? null : category.toLowerCase(Locale.ROOT);
+
+    }
+
+    @PrePersist
+    @PreUpdate
+    void normalizeCategory() {
+
+        categoryKey = toCategoryKey(category);
+
+    }
+
 }
@@ -0,0 +1,92 @@
+package com.spring.recipes.entities.converter;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores a {@link java.util.List} of strings in a single binary column: a format version byte, the number of strings
+ * and then each string as its UTF-8 length followed by its UTF-8 bytes, with the numbers written as unsigned varints.
+ * A recipe's ingredients or directions are thus read and written along with the recipe row itself, instead of as one
+ * row each in a table of their own.
+ *
+ * @author Alex Giazitzis
+ */
+@Converter
+public class StringListConverter implements AttributeConverter<List<String>, byte[]> {
+
+    private static final byte FORMAT_VERSION = 1;
+
+    @Override
+    public byte[] convertToDatabaseColumn(final List<String> values) {
+
+        if (values == null) {
+            return null;
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + values.size() * 32);
+        out.write(FORMAT_VERSION);
+        writeVarInt(out, values.size());
+        for (String value : values) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(out, bytes.length);
+            out.writeBytes(bytes);
+        }
+        return out.toByteArray();
+
+    }
+
+    @Override
+    public List<String> convertToEntityAttribute(final byte[] column) {
+
+        if (column == null) {
+            return new ArrayList<>();
+        }
+
+        ByteBuffer in = ByteBuffer.wrap(column);
+        byte version = in.get();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unknown string list format " + version);
+        }
+
+        int size = readVarInt(in);
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int length = readVarInt(in);
+            values.add(new String(column, in.position(), length, StandardCharsets.UTF_8));
+            in.position(in.position() + length);
+        }
+        return values;
+
+    }
+
+    private static void writeVarInt(final ByteArrayOutputStream out, final int value) {
+
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            out.write((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        out.write(remaining);
+
+    }
+
+    private static int readVarInt(final ByteBuffer in) {
+
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed string list length");
+
+    }
+
+}
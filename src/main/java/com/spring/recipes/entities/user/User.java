@@ -1,9 +1,12 @@
 package com.spring.recipes.entities.user;
 
 import com.spring.recipes.entities.Recipe;
+import com.spring.recipes.security.CredentialCacheInvalidator;
 import com.spring.recipes.utils.Default;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.NaturalId;
 
 import javax.persistence.*;
@@ -12,9 +15,14 @@ import java.util.List;
 import java.util.Objects;
 
 /**
+ * The recipes of a user are mapped by their {@link com.spring.recipes.entities.Recipe#getAuthor()}, which alone records
+ * the authorship, so linking a new recipe to its author never touches the user.
+ *
  * @author Alex Giazitzis
  */
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@EntityListeners(CredentialCacheInvalidator.class)
 @Table(indexes = @Index(name = "user_id_index", columnList = "id"))
 @NoArgsConstructor
 @AllArgsConstructor(onConstructor_ = @Default)
@@ -23,9 +31,14 @@ import java.util.Objects;
 @Setter
 public class User {
 
+    /**
+     * Number of ids reserved with each call to {@code user_id_seq}, which is incremented by the same amount.
+     */
+    public static final int ID_ALLOCATION_SIZE = 100;
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_id_gen")
-    @SequenceGenerator(name = "user_id_gen", sequenceName = "user_id_seq")
+    @SequenceGenerator(name = "user_id_gen", sequenceName = "user_id_seq", allocationSize = ID_ALLOCATION_SIZE)
     Long id;
 
     @NaturalId(mutable = true)
@@ -38,7 +51,7 @@ public class User {
     @Column(nullable = false)
     String role;
 
-    @OneToMany
+    @OneToMany(mappedBy = "author")
     List<Recipe> recipes = new ArrayList<>();
 
     @Override
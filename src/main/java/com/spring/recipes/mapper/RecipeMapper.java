@@ -26,7 +26,9 @@ public interface RecipeMapper {
      */
     @Mappings({
             @Mapping(target = "id", ignore = true),
-            @Mapping(target = "author", source = "user")
+            @Mapping(target = "version", ignore = true),
+            @Mapping(target = "author", source = "user"),
+            @Mapping(target = "categoryKey", ignore = true)
     })
     Recipe toRecipe(final RecipeDto dto, final User user);
 
@@ -38,9 +40,11 @@ public interface RecipeMapper {
      */
     @Mappings({
             @Mapping(target = "id", source = "recipe.id"),
+            @Mapping(target = "version", source = "recipe.version"),
             @Mapping(target = "author", source = "recipe.author"),
             @Mapping(target = "name", source = "dto.name"),
             @Mapping(target = "category", source = "dto.category"),
+            @Mapping(target = "categoryKey", ignore = true),
             @Mapping(target = "date", source = "dto.date"),
             @Mapping(target = "description", source = "dto.description"),
             @Mapping(target = "ingredients", source = "dto.ingredients"),
@@ -0,0 +1,67 @@
+package com.spring.recipes.migration;
+
+import com.spring.recipes.entities.Recipe;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Fills in the {@code category_key} of recipes stored before it existed, on startup and before the web server starts
+ * serving. The keys are computed by {@link com.spring.recipes.entities.Recipe#toCategoryKey(String)} rather than by the
+ * database's {@code LOWER()}, which folds case according to the locale of the database, so they match the keys of the
+ * recipes written since. Runs a chunk per transaction.
+ *
+ * @author Alex Giazitzis
+ */
+@Component
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class CategoryKeyBackfill implements SmartInitializingSingleton {
+
+    private static final int CHUNK_SIZE = 1_000;
+
+    JdbcTemplate        jdbcTemplate;
+    TransactionTemplate transactionTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+
+        Long after = 0L;
+        while (after != null) {
+            final Long from = after;
+            after = transactionTemplate.execute(status -> backfillChunk(from));
+        }
+
+    }
+
+    /**
+     * Fills in the keys of the next {@link CategoryKeyBackfill#CHUNK_SIZE} recipes missing one, with an id greater than
+     * {@code after}.
+     * @return the greatest id filled in, or null if there was nothing left to fill in.
+     */
+    private Long backfillChunk(final Long after) {
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList("SELECT id, category FROM recipe " +
+                                                                   "WHERE category_key IS NULL AND category IS NOT NULL " +
+                                                                   "AND id > ? ORDER BY id LIMIT ?", after, CHUNK_SIZE);
+        if (rows.isEmpty()) {
+            return null;
+        }
+
+        List<Object[]> updates = rows.stream()
+                                     .map(row -> new Object[]{Recipe.toCategoryKey((String) row.get("category")), row.get("id")})
+                                     .collect(Collectors.toList());
+        jdbcTemplate.batchUpdate("UPDATE recipe SET category_key = ? WHERE id = ?", updates);
+        return ((Number) rows.get(rows.size() - 1).get("id")).longValue();
+
+    }
+
+}
@@ -0,0 +1,152 @@
+package com.spring.recipes.migration;
+
+import com.spring.recipes.config.MigrationProperties;
+import com.spring.recipes.entities.converter.StringListConverter;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copies the ingredients and directions of recipes stored before they were encoded in the recipe row, from the former
+ * {@code recipe_ingredients} and {@code recipe_directions} tables into the {@code ingredients_data} and
+ * {@code directions_data} columns. Only runs when {@code recipes.migration.collection-tables.enabled} is set, on
+ * startup, once the schema has been updated and before the web server starts serving. Copies the recipes whose columns
+ * are still empty a chunk per transaction, so an interrupted migration resumes where it stopped. The former tables are
+ * kept, their foreign keys turned into cascading ones so migrated recipes can still be deleted, and are only dropped
+ * once everything was copied if {@code recipes.migration.collection-tables.drop-tables} is set as well.
+ *
+ * @author Alex Giazitzis
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class CollectionTableMigration implements SmartInitializingSingleton {
+
+    private static final String INGREDIENTS = "RECIPE_INGREDIENTS";
+    private static final String DIRECTIONS  = "RECIPE_DIRECTIONS";
+
+    JdbcTemplate        jdbcTemplate;
+    TransactionTemplate transactionTemplate;
+    boolean             enabled;
+    boolean             dropTables;
+    int                 chunkSize;
+
+    StringListConverter converter = new StringListConverter();
+
+    public CollectionTableMigration(final JdbcTemplate jdbcTemplate, final TransactionTemplate transactionTemplate,
+                                    final MigrationProperties properties) {
+
+        MigrationProperties.CollectionTables config = properties.getCollectionTables();
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = config.isEnabled();
+        this.dropTables = config.isDropTables();
+        this.chunkSize = config.getChunkSize();
+
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+
+        if (!enabled || !tableExists(INGREDIENTS) || !tableExists(DIRECTIONS)) {
+            return;
+        }
+
+        cascadeDeletes(INGREDIENTS);
+        cascadeDeletes(DIRECTIONS);
+
+        Long after = 0L;
+        while (after != null) {
+            final Long from = after;
+            after = transactionTemplate.execute(status -> migrateChunk(from));
+        }
+
+        if (dropTables) {
+            jdbcTemplate.execute("DROP TABLE " + INGREDIENTS);
+            jdbcTemplate.execute("DROP TABLE " + DIRECTIONS);
+        }
+
+    }
+
+    /**
+     * Copies the next {@link CollectionTableMigration#chunkSize} recipes with an id greater than {@code after}.
+     * @return the greatest id copied, or null if there was nothing left to copy.
+     */
+    private Long migrateChunk(final Long after) {
+
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM recipe WHERE ingredients_data IS NULL AND id > ? " +
+                                                   "ORDER BY id LIMIT ?", Long.class, after, chunkSize);
+        if (ids.isEmpty()) {
+            return null;
+        }
+
+        Long first = ids.get(0);
+        Long last = ids.get(ids.size() - 1);
+        Map<Long, List<String>> ingredients = load(INGREDIENTS, "ingredients", first, last);
+        Map<Long, List<String>> directions = load(DIRECTIONS, "directions", first, last);
+
+        List<Object[]> updates = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            updates.add(new Object[]{converter.convertToDatabaseColumn(ingredients.getOrDefault(id, List.of())),
+                                     converter.convertToDatabaseColumn(directions.getOrDefault(id, List.of())),
+                                     id});
+        }
+        jdbcTemplate.batchUpdate("UPDATE recipe SET ingredients_data = ?, directions_data = ? WHERE id = ?", updates);
+        return last;
+
+    }
+
+    /**
+     * Loads the rows of a former collection table for a range of recipes, in the order they were inserted in, which is
+     * the order of the list they were stored from.
+     */
+    private Map<Long, List<String>> load(final String table, final String column, final Long first, final Long last) {
+
+        Map<Long, List<String>> values = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT id, " + column + " FROM " + table + " WHERE id BETWEEN ? AND ? ORDER BY _ROWID_",
+                           row -> {
+                               values.computeIfAbsent(row.getLong(1), id -> new ArrayList<>()).add(row.getString(2));
+                           },
+                           first, last);
+        return values;
+
+    }
+
+    /**
+     * Replaces the foreign keys of a former collection table by one deleting its rows along with their recipe, which
+     * Hibernate no longer does now that the table isn't mapped. Rows left behind by recipes deleted while the table had
+     * no foreign key are removed first, as they would keep the new one from being added. Constraint names are read from H2's
+     * {@code information_schema.constraints}.
+     */
+    private void cascadeDeletes(final String table) {
+
+        String cascading = table + "_RECIPE_FK";
+        List<String> constraints = jdbcTemplate.queryForList("SELECT constraint_name FROM information_schema.constraints " +
+                                                             "WHERE table_name = ? AND constraint_type = 'REFERENTIAL'",
+                                                             String.class, table);
+        if (constraints.contains(cascading)) {
+            return;
+        }
+        constraints.forEach(constraint -> jdbcTemplate.execute("ALTER TABLE " + table + " DROP CONSTRAINT " + constraint));
+        jdbcTemplate.update("DELETE FROM " + table + " WHERE id NOT IN (SELECT id FROM recipe)");
+        jdbcTemplate.execute("ALTER TABLE " + table + " ADD CONSTRAINT " + cascading +
+                             " FOREIGN KEY (id) REFERENCES recipe (id) ON DELETE CASCADE");
+
+    }
+
+    private boolean tableExists(final String table) {
+
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.tables WHERE table_name = ?",
+                                                    Integer.class, table);
+        return count != null && count > 0;
+
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.spring.recipes.migration;
+
+import com.spring.recipes.entities.Recipe;
+import com.spring.recipes.entities.user.User;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Brings a database created by an earlier version of the application up to date with the parts of the schema that
+ * Hibernate's {@code ddl-auto=update} leaves alone. Runs on startup, once Hibernate has updated the schema and before
+ * the web server starts serving. Every step checks for, or is a no-op on, a database that is already up to date, so it
+ * can run on every startup.
+ *
+ * @author Alex Giazitzis
+ */
+@Component
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class SchemaUpgrade implements SmartInitializingSingleton {
+
+    JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+
+        backfillVersions();
+        dropRecipeIdIndex();
+        alignSequence("RECIPE_ID_SEQ", Recipe.ID_ALLOCATION_SIZE);
+        alignSequence("USER_ID_SEQ", User.ID_ALLOCATION_SIZE);
+        dropUserRecipes();
+
+    }
+
+    /**
+     * Recipes stored before they were versioned get the initial version.
+     */
+    private void backfillVersions() {
+
+        jdbcTemplate.update("UPDATE recipe SET version = 0 WHERE version IS NULL");
+
+    }
+
+    /**
+     * Drops the index on the primary key that recipes used to declare, which duplicated the primary key index.
+     */
+    private void dropRecipeIdIndex() {
+
+        jdbcTemplate.execute("DROP INDEX IF EXISTS recipe_id_index");
+
+    }
+
+    /**
+     * Makes a sequence step by the number of ids its generator reserves at once, which Hibernate doesn't change on
+     * existing sequences. Only sequences stepping by another amount are altered.
+     */
+    private void alignSequence(final String sequence, final int allocationSize) {
+
+        Integer misaligned = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.sequences " +
+                                                         "WHERE sequence_name = ? AND increment <> ?",
+                                                         Integer.class, sequence, allocationSize);
+        if (misaligned != null && misaligned > 0) {
+            jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " INCREMENT BY " + allocationSize);
+        }
+
+    }
+
+    /**
+     * Drops the join table that used to hold the recipes of each user. It only duplicated {@code recipe.author_id},
+     * and its foreign key would keep the recipes it lists from being deleted now that it isn't mapped.
+     */
+    private void dropUserRecipes() {
+
+        jdbcTemplate.execute("DROP TABLE IF EXISTS user_recipes");
+
+    }
+
+}
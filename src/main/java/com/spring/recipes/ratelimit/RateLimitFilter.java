@@ -0,0 +1,87 @@
+package com.spring.recipes.ratelimit;
+
+import com.spring.recipes.entities.user.UserDetailsImpl;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rejects requests over their rate limit with 429 Too Many Requests and a <em>Retry-After</em> header. Added to the
+ * security filter chain by {@link com.spring.recipes.config.WebSecConfig} twice: ahead of the authentication for the
+ * {@link RateLimitScope#IP} limits, so floods are turned away before any password is hashed, and after it for the
+ * {@link RateLimitScope#USER} limits.
+ *
+ * @author Alex Giazitzis
+ */
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    RateLimiter    rateLimiter;
+    RateLimitScope scope;
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+                                    final FilterChain filterChain) throws ServletException, IOException {
+
+        String key = key(request);
+        if (key != null) {
+            String path = request.getRequestURI().substring(request.getContextPath().length());
+            long wait = rateLimiter.admit(path, scope, key);
+            if (wait > 0) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds(wait)));
+                response.sendError(HttpStatus.TOO_MANY_REQUESTS.value());
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+
+    }
+
+    /**
+     * @param wait nanoseconds until the client may send the request again.
+     * @return the whole seconds of the <em>Retry-After</em> header, rounded up and at least 1.
+     */
+    static long retryAfterSeconds(final long wait) {
+
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1));
+
+    }
+
+    /**
+     * Both instances of the filter run on the same request, so each needs its own marker.
+     */
+    @Override
+    protected String getAlreadyFilteredAttributeName() {
+
+        return RateLimitFilter.class.getName() + "." + scope + ALREADY_FILTERED_SUFFIX;
+
+    }
+
+    private String key(final HttpServletRequest request) {
+
+        if (scope == RateLimitScope.IP) {
+            return request.getRemoteAddr();
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl) {
+            return String.valueOf(((UserDetailsImpl) authentication.getPrincipal()).getId());
+        }
+        return null;
+
+    }
+
+}
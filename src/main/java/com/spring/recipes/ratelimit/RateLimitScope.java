@@ -0,0 +1,20 @@
+package com.spring.recipes.ratelimit;
+
+/**
+ * Whose requests a limit of {@link com.spring.recipes.config.RateLimitProperties} counts together.
+ *
+ * @author Alex Giazitzis
+ */
+public enum RateLimitScope {
+
+    /**
+     * Requests of the same client address, counted before authentication.
+     */
+    IP,
+
+    /**
+     * Requests of the same authenticated user, counted after authentication.
+     */
+    USER
+
+}
@@ -0,0 +1,123 @@
+package com.spring.recipes.ratelimit;
+
+import com.spring.recipes.config.RateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Admits or rejects requests according to the per-route limits of {@link com.spring.recipes.config.RateLimitProperties},
+ * keeping separate {@link TokenBuckets} for every route and {@link RateLimitScope}. Rejections are counted by the
+ * {@code recipes.rate.limit.rejections} counter and the buckets held are reported by the
+ * {@code recipes.rate.limit.buckets} gauge, both tagged with the route and the scope. Idle buckets are swept every
+ * minute, off the request threads.
+ *
+ * @author Alex Giazitzis
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class RateLimiter {
+
+    boolean            enabled;
+    List<LimitedRoute> routes  = new ArrayList<>();
+    AntPathMatcher     matcher = new AntPathMatcher();
+
+    public RateLimiter(final RateLimitProperties properties, final MeterRegistry meterRegistry) {
+
+        this.enabled = properties.isEnabled();
+
+        for (RateLimitProperties.Route route : properties.getRoutes()) {
+            Map<RateLimitScope, RateLimitProperties.Limit> limits = new EnumMap<>(RateLimitScope.class);
+            if (route.getUser() != null) {
+                limits.put(RateLimitScope.USER, route.getUser());
+            }
+            if (route.getIp() != null) {
+                limits.put(RateLimitScope.IP, route.getIp());
+            }
+
+            Map<RateLimitScope, TokenBuckets> buckets = new EnumMap<>(RateLimitScope.class);
+            Map<RateLimitScope, Counter> rejections = new EnumMap<>(RateLimitScope.class);
+            limits.forEach((scope, limit) -> {
+                TokenBuckets scopeBuckets = new TokenBuckets(limit.getRequestsPerSecond(), limit.getBurst());
+                String scopeTag = scope.name().toLowerCase(Locale.ROOT);
+                buckets.put(scope, scopeBuckets);
+                rejections.put(scope, Counter.builder("recipes.rate.limit.rejections")
+                                             .description("Requests rejected for exceeding their rate limit")
+                                             .tag("route", route.getPath())
+                                             .tag("scope", scopeTag)
+                                             .register(meterRegistry));
+                Gauge.builder("recipes.rate.limit.buckets", scopeBuckets, TokenBuckets::size)
+                     .description("Clients holding a bucket of the rate limit")
+                     .tag("route", route.getPath())
+                     .tag("scope", scopeTag)
+                     .register(meterRegistry);
+            });
+            routes.add(new LimitedRoute(route.getPath(), buckets, rejections));
+        }
+
+    }
+
+    /**
+     * Takes a token for a request, from the buckets of the first route matching its path.
+     * @param path  of the request, without the context path.
+     * @param scope {@link RateLimitScope} the {@code key} identifies a client in.
+     * @param key   the client address or the user id of the request.
+     * @return 0 if the request is admitted, otherwise the nanoseconds until the client may send it again.
+     */
+    public long admit(final String path, final RateLimitScope scope, final String key) {
+
+        if (!enabled) {
+            return 0;
+        }
+
+        for (LimitedRoute route : routes) {
+            if (matcher.match(route.pattern, path)) {
+                TokenBuckets buckets = route.buckets.get(scope);
+                if (buckets == null) {
+                    return 0;
+                }
+                long wait = buckets.tryAcquire(key, System.nanoTime());
+                if (wait > 0) {
+                    route.rejections.get(scope).increment();
+                }
+                return wait;
+            }
+        }
+        return 0;
+
+    }
+
+    /**
+     * Removes the buckets of the clients that haven't sent a request for long enough to have refilled them.
+     */
+    @Scheduled(fixedRate = 60_000)
+    public void sweep() {
+
+        long now = System.nanoTime();
+        routes.forEach(route -> route.buckets.values().forEach(buckets -> buckets.sweep(now)));
+
+    }
+
+    @AllArgsConstructor
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static class LimitedRoute {
+
+        String                            pattern;
+        Map<RateLimitScope, TokenBuckets> buckets;
+        Map<RateLimitScope, Counter>      rejections;
+
+    }
+
+}
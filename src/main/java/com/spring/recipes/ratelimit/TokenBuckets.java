@@ -0,0 +1,79 @@
+package com.spring.recipes.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets of one rate limit, one per key, implemented with the generic cell rate algorithm: each bucket is a
+ * single {@link java.util.concurrent.atomic.AtomicLong} holding the theoretical arrival time of the next request, and
+ * admitting a request is one compare-and-set on it. Buckets that have refilled completely hold no information and are
+ * swept away by {@link TokenBuckets#sweep(long)}, called on a schedule, so idle clients don't accumulate.
+ *
+ * @author Alex Giazitzis
+ */
+class TokenBuckets {
+
+    private final long                              emissionInterval;
+    private final long                              tolerance;
+    private final ConcurrentMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    TokenBuckets(final double requestsPerSecond, final int burst) {
+
+        if (requestsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("A rate limit needs a positive rate and a burst of at least 1.");
+        }
+        this.emissionInterval = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+        this.tolerance = emissionInterval * burst;
+
+    }
+
+    /**
+     * Takes a token from the bucket of {@code key}, if one is left. A token taken from a bucket that was swept away
+     * meanwhile is taken again from the bucket that replaced it, so no request goes through uncharged.
+     * @param key whose bucket a token is taken from.
+     * @param now current {@link System#nanoTime()}.
+     * @return 0 if the request is admitted, otherwise the nanoseconds until a token will be available.
+     */
+    long tryAcquire(final String key, final long now) {
+
+        while (true) {
+            AtomicLong bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+            long arrival = bucket.get();
+            long next = Math.max(arrival, now) + emissionInterval;
+            long allowedAt = next - tolerance;
+            if (allowedAt > now) {
+                return allowedAt - now;
+            }
+            if (bucket.compareAndSet(arrival, next) && buckets.get(key) == bucket) {
+                return 0;
+            }
+        }
+
+    }
+
+    /**
+     * Removes the buckets that have refilled completely by {@code now}.
+     * @param now current {@link System#nanoTime()}.
+     */
+    void sweep(final long now) {
+
+        buckets.forEach((key, bucket) -> {
+            if (bucket.get() < now) {
+                buckets.remove(key, bucket);
+            }
+        });
+
+    }
+
+    /**
+     * @return the number of buckets held.
+     */
+    int size() {
+
+        return buckets.size();
+
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.spring.recipes.repo;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Closed projection of a {@link com.spring.recipes.entities.Recipe} holding only what is needed to index its ingredients.
+ *
+ * @author Alex Giazitzis
+ */
+public interface RecipeIngredientsView {
+
+    Long getId();
+
+    LocalDateTime getDate();
+
+    List<String> getIngredients();
+
+}
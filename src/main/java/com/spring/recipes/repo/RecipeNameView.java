@@ -0,0 +1,18 @@
+package com.spring.recipes.repo;
+
+import java.time.LocalDateTime;
+
+/**
+ * Closed projection of a {@link com.spring.recipes.entities.Recipe} holding only what is needed to index its name.
+ *
+ * @author Alex Giazitzis
+ */
+public interface RecipeNameView {
+
+    Long getId();
+
+    String getName();
+
+    LocalDateTime getDate();
+
+}
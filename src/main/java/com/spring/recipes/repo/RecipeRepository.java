@@ -1,10 +1,22 @@
 package com.spring.recipes.repo;
 
+import com.spring.recipes.dto.RecipeSummaryDto;
 import com.spring.recipes.entities.Recipe;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 /**
  * @author Alex Giazitzis
@@ -13,20 +25,140 @@ import java.util.List;
 public interface RecipeRepository extends CrudRepository<Recipe, Long> {
 
     /**
-     * Fetches all the {@link com.spring.recipes.entities.Recipe}s that their name contains the passed {@code name} value,
-     * ordering the list by the date they were created in descending order.
-     * @param name the string to search in the recipe names, ignores the case of both the parameter and the entity's name
+     * Number of rows the JDBC driver reads per round trip when the recipes are streamed.
+     */
+    String STREAM_FETCH_SIZE = "500";
+
+    /**
+     * Fetches a page of the {@link com.spring.recipes.entities.Recipe}s that their name contains the passed {@code name} value,
+     * ordering them by the date they were created in and then their id, both in descending order. The page starts right after
+     * the recipe with the passed {@code date} and {@code id}, seeking on them instead of skipping the previous pages.
+     * Declared read-only, as query methods get no transaction of their own, so it is sent to a replica when reads are
+     * routed to them.
+     * @param name     the string to search in the recipe names, ignores the case of both the parameter and the entity's name
+     * @param date     of the last recipe of the previous page.
+     * @param id       of the last recipe of the previous page.
+     * @param pageable {@link org.springframework.data.domain.Pageable} limiting the size of the page.
      * @return {@link java.util.List} of {@link com.spring.recipes.entities.Recipe}s with the found entities.
      */
-    List<Recipe> findAllByNameIgnoreCaseContainingOrderByDateDesc(final String name);
+    @Transactional(readOnly = true)
+    @Query("select r from Recipe r " +
+           "where upper(r.name) like upper(concat('%', :#{escape(#name)}, '%')) escape :#{escapeCharacter()} " +
+           "and (r.date < :date or (r.date = :date and r.id < :id)) " +
+           "order by r.date desc, r.id desc")
+    List<Recipe> findPageByNameContaining(@Param("name") final String name,
+                                          @Param("date") final LocalDateTime date,
+                                          @Param("id") final Long id,
+                                          final Pageable pageable);
 
     /**
-     * Fetches all the {@link com.spring.recipes.entities.Recipe}s that are categorized under the {@code category} value,
-     * ordering the list by the date they were created in descending order.
-     * @param category the string to search in the recipe names, ignores the case of both the parameter and the entity's category
+     * Fetches a page of the {@link com.spring.recipes.entities.Recipe}s that are categorized under the {@code categoryKey} value,
+     * ordering them by the date they were created in and then their id, both in descending order. The page starts right after
+     * the recipe with the passed {@code date} and {@code id}, seeking on them instead of skipping the previous pages.
+     * Declared read-only for the same reason as {@link RecipeRepository#findPageByNameContaining}.
+     * @param categoryKey the case-folded category of the recipes, see {@link com.spring.recipes.entities.Recipe#toCategoryKey(String)}
+     * @param date        of the last recipe of the previous page.
+     * @param id          of the last recipe of the previous page.
+     * @param pageable    {@link org.springframework.data.domain.Pageable} limiting the size of the page.
      * @return {@link java.util.List} of {@link com.spring.recipes.entities.Recipe}s with the found entities.
      */
+    @Transactional(readOnly = true)
+    @Query("select r from Recipe r " +
+           "where r.categoryKey = :categoryKey " +
+           "and (r.date < :date or (r.date = :date and r.id < :id)) " +
+           "order by r.date desc, r.id desc")
+    List<Recipe> findPageByCategory(@Param("categoryKey") final String categoryKey,
+                                    @Param("date") final LocalDateTime date,
+                                    @Param("id") final Long id,
+                                    final Pageable pageable);
+
+    /**
+     * Fetches a page of {@link com.spring.recipes.dto.RecipeSummaryDto}s of the {@link com.spring.recipes.entities.Recipe}s
+     * created at or after {@code from}, ordering them by the date they were created in and then their id, both in descending
+     * order. The page starts right after the recipe with the passed {@code date} and {@code id}. Every selected column is
+     * held by the {@code recipe_date_index}, so the page is read from the index alone.
+     * @param from     earliest date of the recipes.
+     * @param date     of the last recipe of the previous page.
+     * @param id       of the last recipe of the previous page.
+     * @param pageable {@link org.springframework.data.domain.Pageable} limiting the size of the page.
+     * @return {@link java.util.List} of {@link com.spring.recipes.dto.RecipeSummaryDto}s of the found recipes.
+     */
+    @Query("select new com.spring.recipes.dto.RecipeSummaryDto(r.id, r.name, r.category, r.date) from Recipe r " +
+           "where r.date >= :from " +
+           "and (r.date < :date or (r.date = :date and r.id < :id)) " +
+           "order by r.date desc, r.id desc")
+    List<RecipeSummaryDto> findSummaryPage(@Param("from") final LocalDateTime from,
+                                           @Param("date") final LocalDateTime date,
+                                           @Param("id") final Long id,
+                                           final Pageable pageable);
+
+    /**
+     * Streams the {@link com.spring.recipes.entities.Recipe}s that their name contains the passed {@code name} value,
+     * newest first, reading them from the database {@link RecipeRepository#STREAM_FETCH_SIZE} rows at a time.
+     * Must be called, and the stream consumed and closed, within a transaction.
+     * @param name the string to search in the recipe names, ignores the case of both the parameter and the entity's name
+     * @return {@link java.util.stream.Stream} of {@link com.spring.recipes.entities.Recipe}s with the found entities.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select r from Recipe r " +
+           "where upper(r.name) like upper(concat('%', :#{escape(#name)}, '%')) escape :#{escapeCharacter()} " +
+           "order by r.date desc, r.id desc")
+    Stream<Recipe> streamByNameContaining(@Param("name") final String name);
 
-    List<Recipe> findAllByCategoryIgnoreCaseOrderByDateDesc(final String category);
+    /**
+     * Streams the {@link com.spring.recipes.entities.Recipe}s that are categorized under the {@code categoryKey} value,
+     * newest first, reading them from the database {@link RecipeRepository#STREAM_FETCH_SIZE} rows at a time.
+     * Must be called, and the stream consumed and closed, within a transaction.
+     * @param categoryKey the case-folded category of the recipes, see {@link com.spring.recipes.entities.Recipe#toCategoryKey(String)}
+     * @return {@link java.util.stream.Stream} of {@link com.spring.recipes.entities.Recipe}s with the found entities.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select r from Recipe r where r.categoryKey = :categoryKey order by r.date desc, r.id desc")
+    Stream<Recipe> streamByCategory(@Param("categoryKey") final String categoryKey);
+
+    /**
+     * Streams every {@link com.spring.recipes.entities.Recipe}, newest first, reading them from the database
+     * {@link RecipeRepository#STREAM_FETCH_SIZE} rows at a time.
+     * Must be called, and the stream consumed and closed, within a transaction.
+     * @return {@link java.util.stream.Stream} of all the {@link com.spring.recipes.entities.Recipe}s.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select r from Recipe r order by r.date desc, r.id desc")
+    Stream<Recipe> streamAll();
+
+    /**
+     * Streams the id, name and date of every {@link com.spring.recipes.entities.Recipe}, without loading the rest of
+     * the entities, reading them from the database {@link RecipeRepository#STREAM_FETCH_SIZE} rows at a time.
+     * Must be called, and the stream consumed and closed, within a transaction.
+     * @return {@link java.util.stream.Stream} of {@link RecipeNameView}s of all the recipes.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select r.id as id, r.name as name, r.date as date from Recipe r")
+    Stream<RecipeNameView> streamNamesBy();
+
+    /**
+     * Streams the id, date and ingredients of every {@link com.spring.recipes.entities.Recipe}, without loading the rest
+     * of the entities, reading them from the database {@link RecipeRepository#STREAM_FETCH_SIZE} rows at a time.
+     * Must be called, and the stream consumed and closed, within a transaction.
+     * @return {@link java.util.stream.Stream} of {@link RecipeIngredientsView}s of all the recipes.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select r.id as id, r.date as date, r.ingredients as ingredients from Recipe r")
+    Stream<RecipeIngredientsView> streamIngredientsBy();
 
 }
@@ -0,0 +1,83 @@
+package com.spring.recipes.search;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a list of recipes ordered by date and then id, both descending. A page that starts after a cursor holds
+ * only recipes strictly older than it, so pages can be fetched by seeking on the {@code (date, id)} pair instead of
+ * skipping rows. Clients only ever see its opaque {@link Cursor#encode()}d form.
+ *
+ * @author Alex Giazitzis
+ */
+@AllArgsConstructor(staticName = "of")
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Getter
+@EqualsAndHashCode
+public class Cursor {
+
+    /**
+     * Cursor positioned before the newest possible recipe, from which the first page starts.
+     */
+    public static final Cursor FIRST = Cursor.of(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    private static final String SEPARATOR = "|";
+
+    LocalDateTime date;
+    Long          id;
+
+    /**
+     * @param date of the recipe to check.
+     * @param id   of the recipe to check.
+     * @return whether the recipe with the passed date and id belongs to a page that starts after this cursor.
+     */
+    public boolean precedes(final LocalDateTime date, final Long id) {
+
+        if (date == null) {
+            return false;
+        }
+        int compared = date.compareTo(this.date);
+        return compared < 0 || (compared == 0 && id < this.id);
+
+    }
+
+    /**
+     * @return the opaque form of the cursor that is handed out to clients.
+     */
+    public String encode() {
+
+        String raw = date + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+
+    }
+
+    /**
+     * Parses a cursor previously handed out by {@link Cursor#encode()}.
+     * @param encoded opaque form of the cursor.
+     * @return the decoded {@link Cursor}.
+     * @throws IllegalArgumentException if the passed value isn't a valid cursor.
+     */
+    public static Cursor decode(final String encoded) {
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Malformed cursor.");
+            }
+            return Cursor.of(LocalDateTime.parse(raw.substring(0, separator)), Long.valueOf(raw.substring(separator + 1)));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed cursor.", e);
+        }
+
+    }
+
+}
@@ -0,0 +1,159 @@
+package com.spring.recipes.search;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * The lifecycle shared by the in-memory indexes over the recipes: built from a snapshot of the database while writes
+ * keep coming, then kept up to date by every write. A build fills a new state off to the side, without holding any
+ * lock, and swaps it in at once. The writes made while it runs are recorded, the latest one per recipe, and replayed
+ * onto the new state as it is swapped in, so recipes written meanwhile keep their newer state. Until the first build
+ * is swapped in, {@link IncrementalIndex#isReady()} returns false and the index can't answer searches.
+ *
+ * @param <S> type of the state of the index.
+ * @param <E> type of what the index holds for each recipe.
+ * @author Alex Giazitzis
+ */
+public abstract class IncrementalIndex<S, E> {
+
+    private final boolean                enabled;
+    private final ReadWriteLock          lock    = new ReentrantReadWriteLock();
+    private final Map<Long, Optional<E>> pending = new HashMap<>();
+
+    private          S       state;
+    private          boolean building;
+    private volatile boolean ready;
+
+    protected IncrementalIndex(final boolean enabled, final S empty) {
+
+        this.enabled = enabled;
+        this.state = empty;
+
+    }
+
+    /**
+     * @return whether the index holds every persisted recipe and can answer searches.
+     */
+    public boolean isReady() {
+
+        return ready;
+
+    }
+
+    protected boolean isEnabled() {
+
+        return enabled;
+
+    }
+
+    /**
+     * Starts recording the writes made until the state being built is swapped in by
+     * {@link IncrementalIndex#swapIn(Object)}. Must be called before the snapshot the state is built from is read.
+     */
+    protected void startBuild() {
+
+        lock.writeLock().lock();
+        try {
+            building = true;
+            pending.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+    }
+
+    /**
+     * Replays the writes recorded since {@link IncrementalIndex#startBuild()} onto the built state, makes it the state
+     * of the index and marks the index as ready.
+     * @param built state of the index, as of the snapshot it was built from.
+     */
+    protected void swapIn(final S built) {
+
+        lock.writeLock().lock();
+        try {
+            pending.forEach((id, entry) -> {
+                unindex(built, id);
+                entry.ifPresent(value -> index(built, id, value));
+            });
+            pending.clear();
+            building = false;
+            state = built;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+    }
+
+    /**
+     * Indexes a new recipe or re-indexes an updated one.
+     * @param id    of the recipe.
+     * @param entry held for the recipe.
+     */
+    protected void write(final Long id, final E entry) {
+
+        apply(id, Optional.of(entry));
+
+    }
+
+    /**
+     * Removes a deleted recipe from the index.
+     * @param id of the recipe.
+     */
+    protected void delete(final Long id) {
+
+        apply(id, Optional.empty());
+
+    }
+
+    /**
+     * Runs a search on the state of the index, under the read lock.
+     * @param search to run.
+     * @param <T>    type of the results.
+     * @return the results of the search.
+     */
+    protected <T> T read(final Function<S, T> search) {
+
+        lock.readLock().lock();
+        try {
+            return search.apply(state);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+    }
+
+    /**
+     * Adds a recipe that isn't held by {@code state} to it.
+     */
+    protected abstract void index(S state, Long id, E entry);
+
+    /**
+     * Removes a recipe from {@code state}, if it holds it.
+     */
+    protected abstract void unindex(S state, Long id);
+
+    private void apply(final Long id, final Optional<E> entry) {
+
+        if (!enabled) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            unindex(state, id);
+            entry.ifPresent(value -> index(state, id, value));
+            if (building) {
+                pending.put(id, entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+    }
+
+}
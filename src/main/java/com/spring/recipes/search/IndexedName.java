@@ -0,0 +1,38 @@
+package com.spring.recipes.search;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+/**
+ * A recipe name as held by the {@link RecipeNameIndex}, already case-folded, along with what the results are ordered by.
+ *
+ * @author Alex Giazitzis
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Getter
+class IndexedName {
+
+    /**
+     * Orders recipes the same way the repository does, newest first, with the id breaking ties between equal dates.
+     */
+    static final Comparator<IndexedName> NEWEST_FIRST =
+            Comparator.comparing(IndexedName::getDate, Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()))
+                      .thenComparing(IndexedName::getId, Comparator.reverseOrder());
+
+    Long          id;
+    String        name;
+    LocalDateTime date;
+
+    IndexedName(final Long id, final String name, final LocalDateTime date) {
+
+        this.id = id;
+        this.name = RecipeNameIndex.normalize(name);
+        this.date = date;
+
+    }
+
+}
@@ -0,0 +1,281 @@
+package com.spring.recipes.search;
+
+import com.spring.recipes.config.SearchProperties;
+import com.spring.recipes.repo.RecipeIngredientsView;
+import com.spring.recipes.repo.RecipeRepository;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over the ingredients of all {@link com.spring.recipes.entities.Recipe}s, mapping every word
+ * found in them, case-folded, to a compressed bitmap of the ids of the recipes using it. Searches for recipes having
+ * all, any or none of some ingredients are answered by intersecting, merging and subtracting these bitmaps, and only
+ * the matching recipes are then ordered by date. Built once the application is ready and kept up to date by
+ * {@link com.spring.recipes.services.impl.RecipeServiceImpl} on every write. Until it is built,
+ * {@link IngredientIndex#isReady()} returns false and ingredient searches can't be answered.
+ *
+ * @author Alex Giazitzis
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class IngredientIndex extends IncrementalIndex<IngredientIndex.Terms, IngredientIndex.Ingredients> {
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("\\P{L}+");
+    private static final int     MIN_WORD_LENGTH = 2;
+
+    RecipeRepository recipeRepository;
+
+    public IngredientIndex(final RecipeRepository recipeRepository, final SearchProperties properties) {
+
+        super(properties.getIngredientIndex().isEnabled(), new Terms());
+        this.recipeRepository = recipeRepository;
+
+    }
+
+    /**
+     * Streams the ingredients of all the persisted recipes and indexes them, once the application has started.
+     * Recipes that were written through {@link IngredientIndex#put(Long, LocalDateTime, List)} or
+     * {@link IngredientIndex#remove(Long)} while the index was being built keep their newer state.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void build() {
+
+        if (!isEnabled()) {
+            return;
+        }
+
+        startBuild();
+        Terms built = new Terms();
+        try (Stream<RecipeIngredientsView> views = recipeRepository.streamIngredientsBy()) {
+            views.forEach(view -> index(built, view.getId(),
+                                        new Ingredients(view.getDate(), words(view.getIngredients()))));
+        }
+        built.terms.values().forEach(term -> term.recipes.runOptimize());
+        swapIn(built);
+
+    }
+
+    /**
+     * Indexes a new recipe or re-indexes an updated one.
+     * @param id          of the recipe.
+     * @param date        the recipe was created in.
+     * @param ingredients of the recipe.
+     */
+    public void put(final Long id, final LocalDateTime date, final List<String> ingredients) {
+
+        write(id, new Ingredients(date, words(ingredients)));
+
+    }
+
+    /**
+     * Removes a deleted recipe from the index.
+     * @param id of the recipe.
+     */
+    public void remove(final Long id) {
+
+        delete(id);
+
+    }
+
+    /**
+     * Finds the ids of the recipes whose ingredients contain every word of each of the {@code all} terms, every word of
+     * at least one of the {@code any} terms, and not every word of any of the {@code none} terms. At least one
+     * {@code all} or {@code any} term is expected.
+     * @param all   terms that must all be found in the ingredients.
+     * @param any   terms of which at least one must be found in the ingredients, ignored if empty.
+     * @param none  terms of which none may be found in the ingredients.
+     * @param after {@link Cursor} the results start after.
+     * @param limit maximum number of ids to return.
+     * @return {@link java.util.List} of the matching ids, ordered by the recipe date in descending order.
+     */
+    public List<Long> search(final Collection<String> all, final Collection<String> any, final Collection<String> none,
+                             final Cursor after, final int limit) {
+
+        return read(terms -> {
+            Roaring64NavigableMap matches = null;
+            for (String term : all) {
+                matches = intersect(matches, terms.matching(term));
+            }
+            if (!any.isEmpty()) {
+                Roaring64NavigableMap union = new Roaring64NavigableMap();
+                any.forEach(term -> union.or(terms.matching(term)));
+                matches = intersect(matches, union);
+            }
+            if (matches == null) {
+                return Collections.<Long>emptyList();
+            }
+            for (String term : none) {
+                matches.andNot(terms.matching(term));
+            }
+            return newest(terms, matches, after, limit);
+        });
+
+    }
+
+    /**
+     * Keeps the {@code limit} newest of the matching recipes that start after the cursor, without sorting all of them.
+     */
+    private static List<Long> newest(final Terms terms, final Roaring64NavigableMap matches, final Cursor after,
+                                     final int limit) {
+
+        Comparator<Long> newestFirst = Comparator.comparing((Long id) -> terms.recipes.get(id).date,
+                                                            Comparator.<LocalDateTime>reverseOrder())
+                                                 .thenComparing(Comparator.<Long>reverseOrder());
+        PriorityQueue<Long> newest = new PriorityQueue<>(limit + 1, newestFirst.reversed());
+
+        matches.forEach(id -> {
+            if (after.precedes(terms.recipes.get(id).date, id)) {
+                newest.add(id);
+                if (newest.size() > limit) {
+                    newest.poll();
+                }
+            }
+        });
+
+        return newest.stream().sorted(newestFirst).collect(Collectors.toList());
+
+    }
+
+    /**
+     * Intersects {@code matches} with {@code other} in place, or copies {@code other} if nothing was matched yet.
+     */
+    private static Roaring64NavigableMap intersect(final Roaring64NavigableMap matches, final Roaring64NavigableMap other) {
+
+        if (matches == null) {
+            Roaring64NavigableMap copy = new Roaring64NavigableMap();
+            copy.or(other);
+            return copy;
+        }
+        matches.and(other);
+        return matches;
+
+    }
+
+    @Override
+    protected void index(final Terms state, final Long id, final Ingredients ingredients) {
+
+        Term[] indexed = new Term[ingredients.words.size()];
+        int i = 0;
+        for (String word : ingredients.words) {
+            indexed[i] = state.terms.computeIfAbsent(word, Term::new);
+            indexed[i++].recipes.addLong(id);
+        }
+        state.recipes.put(id, new IndexedEntry(ingredients.date, indexed));
+
+    }
+
+    @Override
+    protected void unindex(final Terms state, final Long id) {
+
+        IndexedEntry previous = state.recipes.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (Term term : previous.terms) {
+            term.recipes.removeLong(id);
+            if (term.recipes.isEmpty()) {
+                state.terms.remove(term.word);
+            }
+        }
+
+    }
+
+    /**
+     * Splits ingredients into their distinct words, case-folded, leaving out quantities, punctuation and single letters.
+     */
+    static Set<String> words(final List<String> ingredients) {
+
+        if (ingredients == null) {
+            return Collections.emptySet();
+        }
+        return ingredients.stream()
+                          .filter(Objects::nonNull)
+                          .flatMap(ingredient -> WORD_SEPARATOR.splitAsStream(ingredient.toLowerCase(Locale.ROOT)))
+                          .filter(word -> word.length() >= MIN_WORD_LENGTH)
+                          .collect(Collectors.toSet());
+
+    }
+
+    /**
+     * A word found in the ingredients, along with the recipes using it. Recipes refer to the terms they were indexed
+     * under instead of holding copies of their words.
+     */
+    private static final class Term {
+
+        private final String                word;
+        private final Roaring64NavigableMap recipes = new Roaring64NavigableMap();
+
+        private Term(final String word) {
+            this.word = word;
+        }
+
+    }
+
+    private static final class IndexedEntry {
+
+        private final LocalDateTime date;
+        private final Term[]        terms;
+
+        private IndexedEntry(final LocalDateTime date, final Term[] terms) {
+            this.date = date;
+            this.terms = terms;
+        }
+
+    }
+
+    /**
+     * The indexed recipes, along with the words found in their ingredients.
+     */
+    static final class Terms {
+
+        private final Map<Long, IndexedEntry> recipes = new HashMap<>();
+        private final Map<String, Term>       terms   = new HashMap<>();
+
+        /**
+         * @return a new bitmap of the recipes whose ingredients contain every word of {@code term}, empty if it has
+         * none.
+         */
+        private Roaring64NavigableMap matching(final String term) {
+
+            Roaring64NavigableMap matches = null;
+            for (String word : words(List.of(term))) {
+                Term indexed = terms.get(word);
+                if (indexed == null) {
+                    return new Roaring64NavigableMap();
+                }
+                matches = intersect(matches, indexed.recipes);
+            }
+            return matches == null ? new Roaring64NavigableMap() : matches;
+
+        }
+
+    }
+
+    /**
+     * The date and the distinct ingredient words of a recipe, as passed to the index.
+     */
+    static final class Ingredients {
+
+        private final LocalDateTime date;
+        private final Set<String>   words;
+
+        private Ingredients(final LocalDateTime date, final Set<String> words) {
+            this.date = date;
+            this.words = words;
+        }
+
+    }
+
+}
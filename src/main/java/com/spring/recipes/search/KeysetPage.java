@@ -0,0 +1,31 @@
+package com.spring.recipes.search;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * One page of search results along with the {@link Cursor} the next page starts after, if there is one.
+ *
+ * @param <T> type of the results.
+ * @author Alex Giazitzis
+ */
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class KeysetPage<T> {
+
+    @Getter
+    List<T> content;
+    Cursor  next;
+
+    public Optional<Cursor> getNext() {
+
+        return Optional.ofNullable(next);
+
+    }
+
+}
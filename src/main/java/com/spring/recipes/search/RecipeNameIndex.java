@@ -0,0 +1,200 @@
+package com.spring.recipes.search;
+
+import com.spring.recipes.config.SearchProperties;
+import com.spring.recipes.repo.RecipeNameView;
+import com.spring.recipes.repo.RecipeRepository;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-memory trigram index over the names of all {@link com.spring.recipes.entities.Recipe}s, answering case-insensitive
+ * "name contains" searches without scanning the recipe table. Built once the application is ready and kept up to date
+ * by {@link com.spring.recipes.services.impl.RecipeServiceImpl} on every write. Until it is built,
+ * {@link RecipeNameIndex#isReady()} returns false and searches should be answered by the database.
+ *
+ * @author Alex Giazitzis
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class RecipeNameIndex extends IncrementalIndex<RecipeNameIndex.Names, IndexedName> {
+
+    private static final int GRAM_LENGTH = 3;
+
+    RecipeRepository recipeRepository;
+
+    public RecipeNameIndex(final RecipeRepository recipeRepository, final SearchProperties properties) {
+
+        super(properties.getNameIndex().isEnabled(), new Names());
+        this.recipeRepository = recipeRepository;
+
+    }
+
+    /**
+     * Streams the names of all the persisted recipes and indexes them, once the application has started.
+     * Recipes that were written through {@link RecipeNameIndex#put(Long, String, LocalDateTime)} or
+     * {@link RecipeNameIndex#remove(Long)} while the index was being built keep their newer state.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void build() {
+
+        if (!isEnabled()) {
+            return;
+        }
+
+        startBuild();
+        Names built = new Names();
+        try (Stream<RecipeNameView> views = recipeRepository.streamNamesBy()) {
+            views.forEach(view -> index(built, view.getId(),
+                                        new IndexedName(view.getId(), view.getName(), view.getDate())));
+        }
+        swapIn(built);
+
+    }
+
+    /**
+     * Indexes a new recipe or re-indexes an updated one.
+     * @param id   of the recipe.
+     * @param name of the recipe.
+     * @param date the recipe was created in.
+     */
+    public void put(final Long id, final String name, final LocalDateTime date) {
+
+        write(id, new IndexedName(id, name, date));
+
+    }
+
+    /**
+     * Removes a deleted recipe from the index.
+     * @param id of the recipe.
+     */
+    public void remove(final Long id) {
+
+        delete(id);
+
+    }
+
+    /**
+     * Finds the ids of the recipes whose name contains {@code fragment}, ignoring case.
+     * @param fragment to search for in the recipe names.
+     * @param after    {@link Cursor} the results start after.
+     * @param limit    maximum number of ids to return.
+     * @return {@link java.util.List} of the matching ids, ordered by the recipe date in descending order.
+     */
+    public List<Long> search(final String fragment, final Cursor after, final int limit) {
+
+        String needle = normalize(fragment);
+
+        return read(names -> newest(names.candidates(needle), needle, after, limit));
+
+    }
+
+    /**
+     * Keeps the {@code limit} newest of the matching candidates that start after the cursor, without sorting all of
+     * them.
+     */
+    private static List<Long> newest(final Stream<IndexedName> candidates, final String needle, final Cursor after,
+                                     final int limit) {
+
+        PriorityQueue<IndexedName> newest = new PriorityQueue<>(limit + 1, IndexedName.NEWEST_FIRST.reversed());
+
+        candidates.forEach(name -> {
+            if (name.getName().contains(needle) && after.precedes(name.getDate(), name.getId())) {
+                newest.add(name);
+                if (newest.size() > limit) {
+                    newest.poll();
+                }
+            }
+        });
+
+        return newest.stream().sorted(IndexedName.NEWEST_FIRST).map(IndexedName::getId).collect(Collectors.toList());
+
+    }
+
+    @Override
+    protected void index(final Names state, final Long id, final IndexedName name) {
+
+        state.names.put(id, name);
+        grams(name.getName()).forEach(gram -> state.postings.computeIfAbsent(gram, key -> new HashSet<>()).add(id));
+
+    }
+
+    @Override
+    protected void unindex(final Names state, final Long id) {
+
+        IndexedName previous = state.names.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String gram : grams(previous.getName())) {
+            Set<Long> ids = state.postings.get(gram);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                state.postings.remove(gram);
+            }
+        }
+
+    }
+
+    private static Set<String> grams(final String name) {
+
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= name.length(); i++) {
+            grams.add(name.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+
+    }
+
+    /**
+     * Folds the case the same way the database does for {@code IgnoreCase} queries.
+     */
+    static String normalize(final String value) {
+
+        return value == null ? "" : value.toUpperCase(Locale.ROOT);
+
+    }
+
+    /**
+     * The indexed names, along with the ids of the recipes whose name contains each trigram.
+     */
+    static final class Names {
+
+        private final Map<Long, IndexedName> names    = new HashMap<>();
+        private final Map<String, Set<Long>> postings = new HashMap<>();
+
+        /**
+         * Narrows the indexed names down to those containing the rarest trigram of {@code needle}. Needles shorter than
+         * a trigram can't be narrowed down and every name is a candidate.
+         */
+        private Stream<IndexedName> candidates(final String needle) {
+
+            if (needle.length() < GRAM_LENGTH) {
+                return names.values().stream();
+            }
+
+            Set<Long> rarest = null;
+            for (String gram : grams(needle)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids == null) {
+                    return Stream.empty();
+                }
+                if (rarest == null || ids.size() < rarest.size()) {
+                    rarest = ids;
+                }
+            }
+            return rarest.stream().map(names::get);
+
+        }
+
+    }
+
+}
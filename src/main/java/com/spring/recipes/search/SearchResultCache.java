@@ -0,0 +1,217 @@
+package com.spring.recipes.search;
+
+import com.spring.recipes.config.SearchProperties;
+import com.spring.recipes.dto.RecipeDto;
+import com.spring.recipes.entities.Recipe;
+import com.spring.recipes.utils.ExpiringCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.experimental.FieldDefaults;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the pages recently returned by the name and category searches, keyed by the normalized query, the cursor
+ * the page starts after and its size. A written recipe only evicts the pages it could appear in: those of its category,
+ * those searching for a part of its name, and only the ones starting before it. Recipes written within a transaction
+ * evict the pages once the transaction completes, so a page read in the meantime can't outlive the write. Lookups are
+ * counted by the {@code recipes.search.cache} counter, tagged with their {@code result}, and the number of pages held
+ * is reported by the {@code recipes.search.cache.size} gauge.
+ *
+ * @author Alex Giazitzis
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class SearchResultCache {
+
+    private static final String METRIC = "recipes.search.cache";
+
+    boolean                                   enabled;
+    ExpiringCache<Key, KeysetPage<RecipeDto>> pages;
+    Set<Load>                                 loading = ConcurrentHashMap.newKeySet();
+    Counter                                   hits;
+    Counter                                   misses;
+
+    public SearchResultCache(final SearchProperties properties, final MeterRegistry meterRegistry) {
+
+        SearchProperties.ResultCache config = properties.getResultCache();
+        this.enabled = config.isEnabled();
+        this.pages = new ExpiringCache<>(config.getMaxSize(), config.getTtl());
+
+        this.hits = Counter.builder(METRIC)
+                           .description("Search pages answered by the search result cache")
+                           .tag("result", "hit")
+                           .register(meterRegistry);
+        this.misses = Counter.builder(METRIC)
+                             .description("Search pages that had to be searched for")
+                             .tag("result", "miss")
+                             .register(meterRegistry);
+        Gauge.builder(METRIC + ".size", pages, ExpiringCache::size)
+             .description("Search pages held by the search result cache")
+             .register(meterRegistry);
+
+    }
+
+    /**
+     * Returns the cached page of the recipes whose name contains {@code name}, searching for it if it isn't cached.
+     * @param name   value the recipe names should contain, ignoring case.
+     * @param after  {@link Cursor} the page starts after.
+     * @param limit  maximum number of recipes in the page.
+     * @param search finds the page when it isn't cached.
+     * @return {@link KeysetPage} of {@link com.spring.recipes.dto.RecipeDto}s.
+     */
+    public KeysetPage<RecipeDto> byName(final String name, final Cursor after, final int limit,
+                                        final Supplier<KeysetPage<RecipeDto>> search) {
+
+        return get(new Key(Type.NAME, RecipeNameIndex.normalize(name), after, limit), search);
+
+    }
+
+    /**
+     * Returns the cached page of the recipes in {@code category}, searching for it if it isn't cached.
+     * @param category value the recipe categories should be equal to, ignoring case.
+     * @param after    {@link Cursor} the page starts after.
+     * @param limit    maximum number of recipes in the page.
+     * @param search   finds the page when it isn't cached.
+     * @return {@link KeysetPage} of {@link com.spring.recipes.dto.RecipeDto}s.
+     */
+    public KeysetPage<RecipeDto> byCategory(final String category, final Cursor after, final int limit,
+                                            final Supplier<KeysetPage<RecipeDto>> search) {
+
+        return get(new Key(Type.CATEGORY, Recipe.toCategoryKey(category), after, limit), search);
+
+    }
+
+    /**
+     * Evicts the pages that the passed recipe, in the state it is in now, appears or would appear in. Updated recipes
+     * should be passed both before and after the update, so the pages of their previous name and category go as well.
+     * @param recipe {@link com.spring.recipes.entities.Recipe} that was persisted, updated or deleted.
+     */
+    public void invalidate(final Recipe recipe) {
+
+        if (!enabled) {
+            return;
+        }
+
+        String name = RecipeNameIndex.normalize(recipe.getName());
+        String category = Recipe.toCategoryKey(recipe.getCategory());
+        LocalDateTime date = recipe.getDate();
+        Long id = recipe.getId();
+        Runnable eviction = () -> evict(key -> key.isAffectedBy(name, category, date, id));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(final int status) {
+                    eviction.run();
+                }
+            });
+        } else {
+            eviction.run();
+        }
+
+    }
+
+    private KeysetPage<RecipeDto> get(final Key key, final Supplier<KeysetPage<RecipeDto>> search) {
+
+        if (!enabled) {
+            return search.get();
+        }
+
+        Optional<KeysetPage<RecipeDto>> cached = pages.get(key);
+        if (cached.isPresent()) {
+            hits.increment();
+            return cached.get();
+        }
+        misses.increment();
+
+        Load load = new Load(key);
+        loading.add(load);
+        try {
+            KeysetPage<RecipeDto> page = search.get();
+            synchronized (pages) {
+                if (!load.stale) {
+                    pages.put(key, page);
+                }
+            }
+            return page;
+        } finally {
+            loading.remove(load);
+        }
+
+    }
+
+    /**
+     * Removes the matching pages. Matching pages that are being searched for while this happens are not cached
+     * afterwards, as they may have been read before the write that caused the eviction.
+     */
+    private void evict(final Predicate<Key> affected) {
+
+        synchronized (pages) {
+            pages.removeIf((key, page) -> affected.test(key));
+            loading.forEach(load -> {
+                if (affected.test(load.key)) {
+                    load.stale = true;
+                }
+            });
+        }
+
+    }
+
+    private enum Type {
+        NAME,
+        CATEGORY
+    }
+
+    /**
+     * A page being searched for, marked stale by the evictions of its key that happen meanwhile. Guarded by the lock of
+     * the cached pages.
+     */
+    private static final class Load {
+
+        private final Key     key;
+        private       boolean stale;
+
+        private Load(final Key key) {
+            this.key = key;
+        }
+
+    }
+
+    @AllArgsConstructor
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    @EqualsAndHashCode
+    private static final class Key {
+
+        Type   type;
+        String query;
+        Cursor after;
+        int    limit;
+
+        /**
+         * @return whether a recipe with the passed normalized name and category key, date and id belongs to this page.
+         */
+        boolean isAffectedBy(final String name, final String category, final LocalDateTime date, final Long id) {
+
+            if (!after.precedes(date, id)) {
+                return false;
+            }
+            return type == Type.NAME ? name.contains(query) : query.equals(category);
+
+        }
+
+    }
+
+}
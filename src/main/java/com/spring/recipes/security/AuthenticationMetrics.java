@@ -0,0 +1,42 @@
+package com.spring.recipes.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.event.AbstractAuthenticationFailureEvent;
+import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the authentication attempts published by Spring Security in the {@code recipes.authentication} counter, tagged
+ * with their {@code result} and, for failures, the {@code reason} they were rejected for.
+ *
+ * @author Alex Giazitzis
+ */
+@Component
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class AuthenticationMetrics {
+
+    private static final String METRIC = "recipes.authentication";
+
+    MeterRegistry meterRegistry;
+
+    @EventListener
+    public void onSuccess(final AuthenticationSuccessEvent event) {
+
+        meterRegistry.counter(METRIC, "result", "success", "reason", "none").increment();
+
+    }
+
+    @EventListener
+    public void onFailure(final AbstractAuthenticationFailureEvent event) {
+
+        meterRegistry.counter(METRIC, "result", "failure", "reason", event.getException().getClass().getSimpleName())
+                     .increment();
+
+    }
+
+}
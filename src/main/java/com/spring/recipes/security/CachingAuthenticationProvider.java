@@ -0,0 +1,66 @@
+package com.spring.recipes.security;
+
+import com.spring.recipes.entities.user.UserDetailsImpl;
+import com.spring.recipes.timing.Phase;
+import com.spring.recipes.timing.RequestTiming;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+import java.util.Optional;
+
+/**
+ * A {@link org.springframework.security.authentication.dao.DaoAuthenticationProvider} that consults the
+ * {@link CredentialCache} before loading the user and verifying their password, and fills it after every successful
+ * verification. Users found in the cache still go through the same pre and post authentication checks, so a locked,
+ * disabled or expired account is turned away whether its credentials were cached or not. The time spent is recorded as
+ * the {@link com.spring.recipes.timing.Phase#AUTH} phase of the request, except for the user lookup, which is recorded
+ * as its {@link com.spring.recipes.timing.Phase#DB} phase.
+ *
+ * @author Alex Giazitzis
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class CachingAuthenticationProvider extends DaoAuthenticationProvider {
+
+    CredentialCache credentialCache;
+
+    public CachingAuthenticationProvider(final CredentialCache credentialCache) {
+
+        this.credentialCache = credentialCache;
+
+    }
+
+    @Override
+    public Authentication authenticate(final Authentication authentication) throws AuthenticationException {
+
+        return RequestTiming.time(Phase.AUTH, () -> authenticateCached(authentication));
+
+    }
+
+    private Authentication authenticateCached(final Authentication authentication) {
+
+        if (authentication.getCredentials() == null) {
+            return super.authenticate(authentication);
+        }
+
+        String username = authentication.getName();
+        String password = authentication.getCredentials().toString();
+
+        Optional<UserDetailsImpl> user = credentialCache.get(username, password);
+        if (user.isPresent()) {
+            getPreAuthenticationChecks().check(user.get());
+            getPostAuthenticationChecks().check(user.get());
+            return createSuccessAuthentication(user.get(), authentication, user.get());
+        }
+
+        Authentication result = super.authenticate(authentication);
+        if (result.getPrincipal() instanceof UserDetailsImpl) {
+            credentialCache.put(username, password, (UserDetailsImpl) result.getPrincipal());
+        }
+        return result;
+
+    }
+
+}
@@ -0,0 +1,122 @@
+package com.spring.recipes.security;
+
+import com.spring.recipes.config.AuthProperties;
+import com.spring.recipes.entities.user.UserDetailsImpl;
+import com.spring.recipes.utils.ExpiringCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Remembers which username and password pairs were recently verified against their BCrypt hash, so repeated HTTP Basic
+ * requests of the same user don't pay for the hashing again. Entries are keyed by an HMAC of the credentials under a
+ * key generated on startup, so raw passwords are never held by the cache. Lookups are counted by the
+ * {@code recipes.credential.cache} counter, tagged with their {@code result}, and the number of entries is reported by
+ * the {@code recipes.credential.cache.size} gauge.
+ *
+ * @author Alex Giazitzis
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class CredentialCache {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String METRIC    = "recipes.credential.cache";
+
+    boolean                                enabled;
+    ExpiringCache<String, UserDetailsImpl> verified;
+    SecretKeySpec                          key;
+    Counter                                hits;
+    Counter                                misses;
+
+    public CredentialCache(final AuthProperties properties, final MeterRegistry meterRegistry) {
+
+        AuthProperties.Cache config = properties.getCredentialCache();
+        this.enabled = config.isEnabled();
+        this.verified = new ExpiringCache<>(config.getMaxSize(), config.getTtl());
+
+        this.hits = Counter.builder(METRIC)
+                           .description("Authentications answered by the credential cache")
+                           .tag("result", "hit")
+                           .register(meterRegistry);
+        this.misses = Counter.builder(METRIC)
+                             .description("Authentications that had to verify the password hash")
+                             .tag("result", "miss")
+                             .register(meterRegistry);
+        Gauge.builder(METRIC + ".size", verified, ExpiringCache::size)
+             .description("Verified credentials held by the credential cache")
+             .register(meterRegistry);
+
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+
+    }
+
+    /**
+     * Finds the user that was verified with exactly these credentials, if the verification hasn't expired yet.
+     * @param username the email the user authenticated with.
+     * @param password the raw password the user authenticated with.
+     * @return {@link java.util.Optional} of {@link com.spring.recipes.entities.user.UserDetailsImpl} that may or may not exist.
+     */
+    public Optional<UserDetailsImpl> get(final String username, final String password) {
+
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Optional<UserDetailsImpl> user = verified.get(keyOf(username, password));
+        (user.isPresent() ? hits : misses).increment();
+        return user;
+
+    }
+
+    /**
+     * Records a successful verification of the passed credentials.
+     * @param username the email the user authenticated with.
+     * @param password the raw password the user authenticated with.
+     * @param user     {@link com.spring.recipes.entities.user.UserDetailsImpl} the credentials belong to.
+     */
+    public void put(final String username, final String password, final UserDetailsImpl user) {
+
+        if (enabled) {
+            verified.put(keyOf(username, password), user);
+        }
+
+    }
+
+    /**
+     * Forgets every verification made for the user with the specified {@code id}, e.g. after their password or role changed.
+     * @param id of the user whose cached credentials are dropped.
+     */
+    public void invalidate(final Long id) {
+
+        verified.removeIf((hash, user) -> user.getId().equals(id));
+
+    }
+
+    private String keyOf(final String username, final String password) {
+
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return Base64.getEncoder().encodeToString(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Credentials could not be hashed.", e);
+        }
+
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.spring.recipes.security;
+
+import com.spring.recipes.entities.user.User;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * Entity listener of {@link com.spring.recipes.entities.user.User} that drops the cached credentials of a user whenever
+ * their row changes, so a new password or role takes effect on the very next request.
+ *
+ * @author Alex Giazitzis
+ */
+@Component
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class CredentialCacheInvalidator {
+
+    CredentialCache credentialCache;
+
+    @PostUpdate
+    @PostRemove
+    public void invalidate(final User user) {
+
+        credentialCache.invalidate(user.getId());
+
+    }
+
+}
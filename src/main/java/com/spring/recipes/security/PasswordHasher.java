@@ -0,0 +1,62 @@
+package com.spring.recipes.security;
+
+import com.spring.recipes.config.AuthProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+
+/**
+ * Hashes the passwords of new users on a pool of its own, sized by {@link AuthProperties.Hashing}, so a burst of
+ * registrations can't tie up the request threads with BCrypt. Once the pool and its queue are full, further passwords
+ * are rejected instead of queued without bound. The pool is monitored as the {@code password.hashing} executor.
+ *
+ * @author Alex Giazitzis
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class PasswordHasher implements DisposableBean {
+
+    PasswordEncoder    passwordEncoder;
+    ThreadPoolExecutor pool;
+    ExecutorService    executor;
+
+    public PasswordHasher(final PasswordEncoder passwordEncoder, final AuthProperties authProperties,
+                          final MeterRegistry meterRegistry) {
+
+        AuthProperties.Hashing hashing = authProperties.getHashing();
+        this.passwordEncoder = passwordEncoder;
+        this.pool = new ThreadPoolExecutor(hashing.getThreads(), hashing.getThreads(), 0L, TimeUnit.MILLISECONDS,
+                                           new ArrayBlockingQueue<>(hashing.getQueueCapacity()),
+                                           new CustomizableThreadFactory("password-hashing-"),
+                                           new ThreadPoolExecutor.AbortPolicy());
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "password.hashing");
+
+    }
+
+    /**
+     * Hashes a raw password on the hashing pool.
+     * @param rawPassword to hash.
+     * @return {@link java.util.concurrent.CompletableFuture} completed with the hash.
+     * @throws java.util.concurrent.RejectedExecutionException if the hashing pool is saturated.
+     */
+    public CompletableFuture<String> hash(final String rawPassword) {
+
+        return CompletableFuture.supplyAsync(() -> passwordEncoder.encode(rawPassword), executor);
+
+    }
+
+    @Override
+    public void destroy() {
+
+        pool.shutdown();
+
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.spring.recipes.services;
+
+import com.spring.recipes.dto.ImportResultDto;
+import com.spring.recipes.entities.user.User;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * @author Alex Giazitzis
+ */
+public interface RecipeImportService {
+
+    /**
+     * Reads {@link com.spring.recipes.dto.RecipeDto}s from a JSON array or a stream of newline delimited JSON objects,
+     * validates each one and persists the valid ones in chunks, linking them to the passed author.
+     * @param body {@link java.io.InputStream} of the recipes to import.
+     * @param user {@link com.spring.recipes.entities.user.User} to link to the recipes before persisting them.
+     * @return {@link java.util.List} of {@link com.spring.recipes.dto.ImportResultDto}s, one for each recipe read, in the
+     * order they were read.
+     * @throws IOException if the body can't be read.
+     */
+    List<ImportResultDto> importRecipes(final InputStream body, final User user) throws IOException;
+
+}
@@ -1,11 +1,16 @@
 package com.spring.recipes.services;
 
 import com.spring.recipes.dto.RecipeDto;
+import com.spring.recipes.dto.RecipeSummaryDto;
 import com.spring.recipes.entities.Recipe;
 import com.spring.recipes.entities.user.User;
+import com.spring.recipes.search.Cursor;
+import com.spring.recipes.search.KeysetPage;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * @author Alex Giazitzis
@@ -14,20 +19,32 @@ public interface RecipeService {
 
     /**
      * Persist a {@link com.spring.recipes.entities.Recipe} by unwrapping its {@link com.spring.recipes.dto.RecipeDto}
-     * and linking it to it's author from the passed {@link com.spring.recipes.entities.user.User} entity.
+     * and linking it to it's author, in a single transaction and without loading the author.
      * @param dto {@link com.spring.recipes.dto.RecipeDto} to unwrap and persist.
-     * @param user {@link com.spring.recipes.entities.user.User} to link to the recipe before persisting it.
+     * @param authorId id of the {@link com.spring.recipes.entities.user.User} to link to the recipe before persisting it.
      * @return the {@link java.lang.Long} id of the persisted recipe.
      */
-    Long save(final RecipeDto dto, final User user);
+    Long save(final RecipeDto dto, final Long authorId);
+
+    /**
+     * Persists a chunk of {@link com.spring.recipes.entities.Recipe}s in a single transaction, the same way
+     * {@link RecipeService#save(RecipeDto, Long)} persists one, so their statements can be sent to the database in batches.
+     * @param dtos {@link java.util.List} of {@link com.spring.recipes.dto.RecipeDto}s to unwrap and persist.
+     * @param user {@link com.spring.recipes.entities.user.User} to link to the recipes before persisting them.
+     * @return {@link java.util.List} of the {@link java.lang.Long} ids of the persisted recipes, in the order of the passed ones.
+     */
+    List<Long> saveAll(final List<RecipeDto> dtos, final User user);
 
     /**
      * Finds a recipe by its {@code id} and updates it based on the data from the {@link com.spring.recipes.dto.RecipeDto}
-     * and its current data.
+     * and its current data, as long as it is still at the expected {@code version}.
      * @param id of the recipe to update.
      * @param dto {@link com.spring.recipes.dto.RecipeDto} with the updated data to persist.
+     * @param version the recipe is expected to be at, or {@code null} to expect the version it is found at.
+     * @return {@link java.util.Optional} of the version of the updated recipe, empty if the recipe doesn't exist.
+     * @throws org.springframework.dao.OptimisticLockingFailureException if the recipe is no longer at the expected version.
      */
-    void update(final Long id, final RecipeDto dto);
+    Optional<Long> update(final Long id, final RecipeDto dto, final Long version);
 
     /**
      * Tries to find if a recipe with the specified {@code id}.
@@ -44,20 +61,79 @@ public interface RecipeService {
     Optional<RecipeDto> getRecipeDto(final Long id);
 
     /**
-     * Finds a {@link java.util.List} of {@link com.spring.recipes.dto.RecipeDto}s that their unwrapped counterpart's name contains
-     * the value passed as a parameter.
-     * @param name value to query by, ignoring the case both of it and the entity's respective field.
-     * @return {@link java.util.List} of {@link com.spring.recipes.dto.RecipeDto}s.
+     * Wraps an already loaded recipe in a data transfer object, so it describes the same version of the recipe.
+     * @param recipe {@link com.spring.recipes.entities.Recipe} to be wrapped.
+     * @return {@link com.spring.recipes.dto.RecipeDto} of the recipe.
+     */
+    RecipeDto toDto(final Recipe recipe);
+
+    /**
+     * Finds a page of {@link com.spring.recipes.dto.RecipeDto}s that their unwrapped counterpart's name contains
+     * the value passed as a parameter, newest first.
+     * @param name  value to query by, ignoring the case both of it and the entity's respective field.
+     * @param after {@link com.spring.recipes.search.Cursor} the page starts after.
+     * @param limit maximum number of recipes in the page.
+     * @return {@link com.spring.recipes.search.KeysetPage} of {@link com.spring.recipes.dto.RecipeDto}s.
+     */
+    KeysetPage<RecipeDto> findRecipesWithNameContaining(final String name, final Cursor after, final int limit);
+
+    /**
+     * Finds a page of {@link com.spring.recipes.dto.RecipeDto}s that their unwrapped counterpart's category
+     * is the value passed as a parameter, newest first.
+     * @param category value to query by, ignoring the case both of it and the entity's respective field.
+     * @param after    {@link com.spring.recipes.search.Cursor} the page starts after.
+     * @param limit    maximum number of recipes in the page.
+     * @return {@link com.spring.recipes.search.KeysetPage} of {@link com.spring.recipes.dto.RecipeDto}s.
+     */
+    KeysetPage<RecipeDto> findRecipesInCategory(final String category, final Cursor after, final int limit);
+
+    /**
+     * Finds a page of {@link com.spring.recipes.dto.RecipeDto}s whose ingredients contain every word of each of the
+     * {@code all} terms, of at least one of the {@code any} terms and of none of the {@code none} terms, newest first.
+     * @param all   terms that must all be found in the ingredients, ignoring case.
+     * @param any   terms of which at least one must be found in the ingredients, ignored if empty.
+     * @param none  terms of which none may be found in the ingredients.
+     * @param after {@link com.spring.recipes.search.Cursor} the page starts after.
+     * @param limit maximum number of recipes in the page.
+     * @return {@link java.util.Optional} of the {@link com.spring.recipes.search.KeysetPage} of
+     * {@link com.spring.recipes.dto.RecipeDto}s, empty while the {@link com.spring.recipes.search.IngredientIndex} isn't ready.
+     */
+    Optional<KeysetPage<RecipeDto>> findRecipesWithIngredients(final List<String> all, final List<String> any,
+                                                               final List<String> none, final Cursor after, final int limit);
+
+    /**
+     * Finds a page of {@link com.spring.recipes.dto.RecipeSummaryDto}s of the newest recipes, optionally only those
+     * created within a time window.
+     * @param from  earliest date of the recipes, inclusive, or {@code null} for no lower bound.
+     * @param to    latest date of the recipes, exclusive, or {@code null} for no upper bound.
+     * @param after {@link com.spring.recipes.search.Cursor} the page starts after.
+     * @param limit maximum number of recipes in the page.
+     * @return {@link com.spring.recipes.search.KeysetPage} of {@link com.spring.recipes.dto.RecipeSummaryDto}s, newest first.
      */
-    List<RecipeDto> findRecipesWithNameContaining(final String name);
+    KeysetPage<RecipeSummaryDto> findLatestRecipes(final LocalDateTime from, final LocalDateTime to, final Cursor after,
+                                                   final int limit);
 
     /**
-     * Finds a {@link java.util.List} of {@link com.spring.recipes.dto.RecipeDto}s that their unwrapped counterpart's category
-     * is the value passed as a parameter.
+     * Streams the {@link com.spring.recipes.dto.RecipeDto}s that their unwrapped counterpart's name contains the value
+     * passed as a parameter to {@code consumer}, newest first, one recipe at a time.
+     * @param name     value to query by, ignoring the case both of it and the entity's respective field.
+     * @param consumer {@link java.util.function.Consumer} each {@link com.spring.recipes.dto.RecipeDto} is passed to.
+     */
+    void exportRecipesWithNameContaining(final String name, final Consumer<RecipeDto> consumer);
+
+    /**
+     * Streams the {@link com.spring.recipes.dto.RecipeDto}s that their unwrapped counterpart's category is the value
+     * passed as a parameter to {@code consumer}, newest first, one recipe at a time.
      * @param category value to query by, ignoring the case both of it and the entity's respective field.
-     * @return {@link java.util.List} of {@link com.spring.recipes.dto.RecipeDto}s.
+     * @param consumer {@link java.util.function.Consumer} each {@link com.spring.recipes.dto.RecipeDto} is passed to.
+     */
+    void exportRecipesInCategory(final String category, final Consumer<RecipeDto> consumer);
+
+    /**
+     * Streams every {@link com.spring.recipes.dto.RecipeDto} to {@code consumer}, newest first, one recipe at a time.
+     * @param consumer {@link java.util.function.Consumer} each {@link com.spring.recipes.dto.RecipeDto} is passed to.
      */
-    List<RecipeDto> findRecipesInCategory(final String category);
+    void exportRecipes(final Consumer<RecipeDto> consumer);
 
     /**
      * Deletes the specified {@link com.spring.recipes.entities.Recipe} from the persistence source.
@@ -5,22 +5,19 @@ import com.spring.recipes.entities.Recipe;
 import com.spring.recipes.entities.user.User;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author Alex Giazitzis
  */
 public interface UserService {
 
-    void save(RegisterUserDto dto);
-
-    void update(User user, Recipe recipe);
+    CompletableFuture<Void> save(RegisterUserDto dto);
 
     Optional<User> getUser(final Long id);
 
     boolean isEmailInUse(final String email);
 
-    boolean removeRecipeFromUser(final Recipe recipe, final Long id);
-
     boolean isRecipeOfUser(final Recipe recipe, final Long id);
 
 }
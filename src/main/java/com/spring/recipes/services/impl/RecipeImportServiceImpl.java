@@ -0,0 +1,125 @@
+package com.spring.recipes.services.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spring.recipes.config.ImportProperties;
+import com.spring.recipes.dto.ImportResultDto;
+import com.spring.recipes.dto.RecipeDto;
+import com.spring.recipes.entities.user.User;
+import com.spring.recipes.services.RecipeImportService;
+import com.spring.recipes.services.RecipeService;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.PersistenceException;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * @author Alex Giazitzis
+ */
+@Service
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class RecipeImportServiceImpl implements RecipeImportService {
+
+    RecipeService    recipeService;
+    ObjectMapper     objectMapper;
+    Validator        validator;
+    ImportProperties importProperties;
+
+    @Override
+    public List<ImportResultDto> importRecipes(final InputStream body, final User user) throws IOException {
+
+        List<ImportResultDto> results = new ArrayList<>();
+        List<RecipeDto> chunk = new ArrayList<>(importProperties.getChunkSize());
+        List<Integer> chunkIndexes = new ArrayList<>(importProperties.getChunkSize());
+
+        int index = 0;
+        try (MappingIterator<RecipeDto> dtos = objectMapper.readerFor(RecipeDto.class).readValues(body)) {
+            while (dtos.hasNextValue()) {
+
+                if (index == importProperties.getMaxItems()) {
+                    results.add(ImportResultDto.failed(index, List.of("Import is limited to " + importProperties.getMaxItems() + " recipes.")));
+                    break;
+                }
+
+                RecipeDto dto = dtos.nextValue();
+                List<String> errors = validate(dto);
+                if (errors.isEmpty()) {
+                    chunk.add(dto);
+                    chunkIndexes.add(index);
+                } else {
+                    results.add(ImportResultDto.failed(index, errors));
+                }
+                index++;
+
+                if (chunk.size() == importProperties.getChunkSize()) {
+                    persist(chunk, chunkIndexes, user, results);
+                }
+
+            }
+        } catch (JsonProcessingException e) {
+            results.add(ImportResultDto.failed(index, List.of("Malformed recipe: " + e.getOriginalMessage())));
+        }
+
+        persist(chunk, chunkIndexes, user, results);
+
+        results.sort(Comparator.comparingInt(ImportResultDto::getIndex));
+        return results;
+
+    }
+
+    /**
+     * Validates a recipe read from the import the same way a recipe posted on its own is validated.
+     * @param dto {@link com.spring.recipes.dto.RecipeDto} to validate.
+     * @return {@link java.util.List} of the validation messages, empty if the recipe is valid.
+     */
+    private List<String> validate(final RecipeDto dto) {
+
+        if (dto == null) {
+            return List.of("Recipe must not be null.");
+        }
+        return validator.validate(dto)
+                        .stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.toList());
+
+    }
+
+    /**
+     * Persists a chunk of valid recipes in a single transaction, recording their ids, or the failure of the whole chunk,
+     * and empties the chunk. Failures of the explicit flush in {@link RecipeService#saveAll(List, User)} surface as
+     * untranslated {@link javax.persistence.PersistenceException}s, failures of the commit as
+     * {@link org.springframework.dao.DataAccessException}s.
+     */
+    private void persist(final List<RecipeDto> chunk, final List<Integer> chunkIndexes, final User user,
+                         final List<ImportResultDto> results) {
+
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<Long> ids = recipeService.saveAll(chunk, user);
+            for (int i = 0; i < ids.size(); i++) {
+                results.add(ImportResultDto.created(chunkIndexes.get(i), ids.get(i)));
+            }
+        } catch (DataAccessException | PersistenceException e) {
+            chunkIndexes.forEach(index -> results.add(ImportResultDto.failed(index, List.of("Recipe could not be persisted."))));
+        }
+
+        chunk.clear();
+        chunkIndexes.clear();
+
+    }
+
+}
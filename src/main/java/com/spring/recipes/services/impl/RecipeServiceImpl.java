@@ -1,19 +1,37 @@
 package com.spring.recipes.services.impl;
 
 import com.spring.recipes.dto.RecipeDto;
+import com.spring.recipes.dto.RecipeSummaryDto;
 import com.spring.recipes.entities.Recipe;
 import com.spring.recipes.entities.user.User;
 import com.spring.recipes.mapper.RecipeMapper;
 import com.spring.recipes.repo.RecipeRepository;
+import com.spring.recipes.search.Cursor;
+import com.spring.recipes.search.IngredientIndex;
+import com.spring.recipes.search.KeysetPage;
+import com.spring.recipes.search.RecipeNameIndex;
+import com.spring.recipes.search.SearchResultCache;
 import com.spring.recipes.services.RecipeService;
+import com.spring.recipes.timing.Phase;
+import com.spring.recipes.timing.RequestTiming;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.Collections;
-import java.util.List;
-import java.util.Optional;
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * @author Alex Giazitzis
@@ -23,21 +41,77 @@ import java.util.Optional;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class RecipeServiceImpl implements RecipeService {
 
-    RecipeRepository recipeRepository;
-    RecipeMapper     recipeMapper;
+    /**
+     * Lower bound of the dates of the latest recipes when no earliest date is asked for.
+     */
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1, 1, 1, 0, 0);
+
+    RecipeRepository  recipeRepository;
+    RecipeMapper      recipeMapper;
+    RecipeNameIndex   recipeNameIndex;
+    IngredientIndex   ingredientIndex;
+    SearchResultCache searchResultCache;
+    EntityManager     entityManager;
+
+    /**
+     * The author is only referenced by its id, through a proxy that is never initialized, and the recipe is persisted
+     * directly, so apart from reserving a new block of ids now and then, the insert of the recipe at commit is the only
+     * statement sent. The recipe is indexed once it is committed.
+     */
+    @Override
+    @Transactional
+    public Long save(final RecipeDto dto, final Long authorId) {
+
+        Recipe recipe = recipeMapper.toRecipe(dto, entityManager.getReference(User.class, authorId));
+        entityManager.persist(recipe);
+
+        afterCommit(() -> index(recipe));
+        searchResultCache.invalidate(recipe);
+        return recipe.getId();
+
+    }
 
     @Override
-    public Long save(final RecipeDto dto, final User user) {
+    @Transactional
+    public List<Long> saveAll(final List<RecipeDto> dtos, final User user) {
+
+        User author = entityManager.getReference(User.class, user.getId());
+        List<Recipe> recipes = dtos.stream().map(dto -> recipeMapper.toRecipe(dto, author)).collect(Collectors.toList());
 
-        return recipeRepository.save(recipeMapper.toRecipe(dto, user)).getId();
+        recipes.forEach(entityManager::persist);
+        entityManager.flush();
+
+        afterCommit(() -> recipes.forEach(this::index));
+        recipes.forEach(searchResultCache::invalidate);
+        recipes.forEach(entityManager::detach);
+        return recipes.stream().map(Recipe::getId).collect(Collectors.toList());
 
     }
 
+    /**
+     * Runs in a single transaction, so the search pages of both the previous and the updated state of the recipe are
+     * evicted once the update is committed. The update is flushed before returning, so the version returned is the one
+     * the recipe was updated to.
+     */
     @Override
-    public void update(final Long id, final RecipeDto dto) {
+    @Transactional
+    public Optional<Long> update(final Long id, final RecipeDto dto, final Long version) {
 
         Optional<Recipe> recipe = recipeRepository.findById(id);
-        recipe.ifPresent(value -> recipeRepository.save(recipeMapper.toRecipe(value, dto)));
+        if (recipe.isEmpty()) {
+            return Optional.empty();
+        }
+        if (version != null && !version.equals(recipe.get().getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Recipe.class, id);
+        }
+        searchResultCache.invalidate(recipe.get());
+
+        Recipe updated = recipeRepository.save(recipeMapper.toRecipe(recipe.get(), dto));
+        entityManager.flush();
+
+        afterCommit(() -> index(updated));
+        searchResultCache.invalidate(updated);
+        return Optional.of(updated.getVersion());
 
     }
 
@@ -53,45 +127,172 @@ public class RecipeServiceImpl implements RecipeService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<RecipeDto> getRecipeDto(final Long id) {
 
-        Optional<Recipe> recipe = getRecipe(id);
-        if (recipe.isEmpty()) {
+        return getRecipe(id).map(this::toDto);
+
+    }
+
+    @Override
+    public RecipeDto toDto(final Recipe recipe) {
+
+        return RequestTiming.time(Phase.MAPPING, () -> recipeMapper.toDto(recipe));
+
+    }
+
+    /**
+     * Served by the {@link com.spring.recipes.search.SearchResultCache} when possible. Not transactional itself, so a
+     * cached page is returned without taking a connection. On a miss, the single query of the search runs in the
+     * read-only transaction declared on the repository method.
+     */
+    @Override
+    public KeysetPage<RecipeDto> findRecipesWithNameContaining(final String name, final Cursor after, final int limit) {
+
+        return searchResultCache.byName(name, after, limit, () -> {
+            if (!recipeNameIndex.isReady()) {
+                return toPage(recipeRepository.findPageByNameContaining(name, after.getDate(), after.getId(),
+                                                                        PageRequest.of(0, limit + 1)), limit);
+            }
+            return toPage(findAllInOrder(recipeNameIndex.search(name, after, limit + 1)), limit);
+        });
+
+    }
+
+    /**
+     * Served by the {@link com.spring.recipes.search.SearchResultCache} when possible, see
+     * {@link RecipeServiceImpl#findRecipesWithNameContaining(String, Cursor, int)}.
+     */
+    @Override
+    public KeysetPage<RecipeDto> findRecipesInCategory(final String category, final Cursor after, final int limit) {
+
+        return searchResultCache.byCategory(category, after, limit, () -> toPage(
+                recipeRepository.findPageByCategory(Recipe.toCategoryKey(category), after.getDate(), after.getId(),
+                                                    PageRequest.of(0, limit + 1)), limit));
+
+    }
+
+    @Override
+    public Optional<KeysetPage<RecipeDto>> findRecipesWithIngredients(final List<String> all, final List<String> any,
+                                                                      final List<String> none, final Cursor after,
+                                                                      final int limit) {
+
+        if (!ingredientIndex.isReady()) {
             return Optional.empty();
         }
-        return Optional.of(recipeMapper.toDto(recipe.get()));
+        return Optional.of(toPage(findAllInOrder(ingredientIndex.search(all, any, none, after, limit + 1)), limit));
+
+    }
+
+    /**
+     * The upper bound is applied by starting the page at whichever of the cursor and {@code to} comes last in the order
+     * of the recipes, so it is served by the same seek on {@code (date, id)} as any other page.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<RecipeSummaryDto> findLatestRecipes(final LocalDateTime from, final LocalDateTime to,
+                                                          final Cursor after, final int limit) {
+
+        Cursor start = to != null && after.precedes(to, Long.MIN_VALUE) ? Cursor.of(to, Long.MIN_VALUE) : after;
+        List<RecipeSummaryDto> summaries = recipeRepository.findSummaryPage(from == null ? EARLIEST : from,
+                                                                            start.getDate(), start.getId(),
+                                                                            PageRequest.of(0, limit + 1));
+        if (summaries.size() <= limit) {
+            return new KeysetPage<>(summaries, null);
+        }
+
+        List<RecipeSummaryDto> content = summaries.subList(0, limit);
+        RecipeSummaryDto last = content.get(content.size() - 1);
+        return new KeysetPage<>(content, Cursor.of(last.getDate(), last.getId()));
 
     }
 
     @Override
-    public List<RecipeDto> findRecipesWithNameContaining(final String name) {
+    @Transactional(readOnly = true)
+    public void exportRecipesWithNameContaining(final String name, final Consumer<RecipeDto> consumer) {
 
-        List<Recipe> list = recipeRepository.findAllByNameIgnoreCaseContainingOrderByDateDesc(name);
-        return checkAndReturn(list);
+        export(recipeRepository.streamByNameContaining(name), consumer);
 
     }
 
     @Override
-    public List<RecipeDto> findRecipesInCategory(final String category) {
+    @Transactional(readOnly = true)
+    public void exportRecipesInCategory(final String category, final Consumer<RecipeDto> consumer) {
 
-        List<Recipe> list = recipeRepository.findAllByCategoryIgnoreCaseOrderByDateDesc(category);
-        return checkAndReturn(list);
+        export(recipeRepository.streamByCategory(Recipe.toCategoryKey(category)), consumer);
+
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportRecipes(final Consumer<RecipeDto> consumer) {
+
+        export(recipeRepository.streamAll(), consumer);
 
     }
 
     /**
-     * Validates a {@link java.util.List} of {@link com.spring.recipes.entities.Recipe}s and if it's not empty, returns
-     * it, wrapped in a {@link java.util.List} of {@link com.spring.recipes.dto.RecipeDto}s, else returns an empty list.
-     * @param recipeList {@link java.util.List} of {@link com.spring.recipes.entities.Recipe}s to be wrapped in a data transfer object.
-     * @return an empty list if the passed {@link java.util.List} of {@link com.spring.recipes.entities.Recipe}s is empty,
-     * else a {@link java.util.List} of {@link com.spring.recipes.dto.RecipeDto}s
+     * Wraps the streamed {@link com.spring.recipes.entities.Recipe}s in {@link com.spring.recipes.dto.RecipeDto}s and
+     * passes them on, in chunks of {@link com.spring.recipes.entities.Recipe#FETCH_BATCH_SIZE}. Each chunk is detached
+     * right after, so the persistence context doesn't grow with the stream.
+     * @param recipes  {@link java.util.stream.Stream} of {@link com.spring.recipes.entities.Recipe}s, closed once consumed.
+     * @param consumer {@link java.util.function.Consumer} each {@link com.spring.recipes.dto.RecipeDto} is passed to.
      */
-    private List<RecipeDto> checkAndReturn(List<Recipe> recipeList) {
+    private void export(final Stream<Recipe> recipes, final Consumer<RecipeDto> consumer) {
 
-        if (recipeList.isEmpty()) {
+        try (recipes) {
+            Iterator<Recipe> iterator = recipes.iterator();
+            List<Recipe> chunk = new ArrayList<>(Recipe.FETCH_BATCH_SIZE);
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == Recipe.FETCH_BATCH_SIZE || !iterator.hasNext()) {
+                    chunk.forEach(recipe -> consumer.accept(recipeMapper.toDto(recipe)));
+                    chunk.forEach(entityManager::detach);
+                    chunk.clear();
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Loads the {@link com.spring.recipes.entities.Recipe}s with the passed ids in a single query, keeping the order of the ids.
+     * @param ids of the recipes to load.
+     * @return {@link java.util.List} of the {@link com.spring.recipes.entities.Recipe}s that still exist, in the order of their ids.
+     */
+    private List<Recipe> findAllInOrder(final List<Long> ids) {
+
+        if (ids.isEmpty()) {
             return Collections.emptyList();
         }
-        return recipeMapper.toDtoList(recipeList);
+
+        Map<Long, Recipe> recipes = StreamSupport.stream(recipeRepository.findAllById(ids).spliterator(), false)
+                                                 .collect(Collectors.toMap(Recipe::getId, Function.identity()));
+        return ids.stream().map(recipes::get).filter(Objects::nonNull).collect(Collectors.toList());
+
+    }
+
+    /**
+     * Wraps up to {@code limit} {@link com.spring.recipes.entities.Recipe}s in a page of {@link com.spring.recipes.dto.RecipeDto}s.
+     * The recipes are expected to have been fetched with one extra row, whose presence tells that there is a next page.
+     * @param recipeList {@link java.util.List} of {@link com.spring.recipes.entities.Recipe}s, newest first, holding at most {@code limit + 1} entities.
+     * @param limit      maximum number of recipes in the page.
+     * @return {@link com.spring.recipes.search.KeysetPage} of {@link com.spring.recipes.dto.RecipeDto}s, with a cursor to the
+     * next page if more recipes were found than fit in this one.
+     */
+    private KeysetPage<RecipeDto> toPage(final List<Recipe> recipeList, final int limit) {
+
+        if (recipeList.isEmpty()) {
+            return new KeysetPage<>(Collections.emptyList(), null);
+        }
+        if (recipeList.size() <= limit) {
+            return new KeysetPage<>(RequestTiming.time(Phase.MAPPING, () -> recipeMapper.toDtoList(recipeList)), null);
+        }
+
+        List<Recipe> content = recipeList.subList(0, limit);
+        Recipe last = content.get(content.size() - 1);
+        return new KeysetPage<>(RequestTiming.time(Phase.MAPPING, () -> recipeMapper.toDtoList(content)),
+                                Cursor.of(last.getDate(), last.getId()));
 
     }
 
@@ -101,6 +302,43 @@ public class RecipeServiceImpl implements RecipeService {
         recipe.setAuthor(null);
         recipeRepository.delete(recipe);
 
+        afterCommit(() -> {
+            recipeNameIndex.remove(recipe.getId());
+            ingredientIndex.remove(recipe.getId());
+        });
+        searchResultCache.invalidate(recipe);
+
+    }
+
+    /**
+     * Indexes a new or updated {@link com.spring.recipes.entities.Recipe} for the name and ingredient searches.
+     * @param recipe to index.
+     */
+    private void index(final Recipe recipe) {
+
+        recipeNameIndex.put(recipe.getId(), recipe.getName(), recipe.getDate());
+        ingredientIndex.put(recipe.getId(), recipe.getDate(), recipe.getIngredients());
+
+    }
+
+    /**
+     * Runs {@code action} once the current transaction commits, so a rolled back write never reaches the in-memory
+     * indexes, or right away if no transaction is active.
+     * @param action to run.
+     */
+    private static void afterCommit(final Runnable action) {
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+
     }
 
 }
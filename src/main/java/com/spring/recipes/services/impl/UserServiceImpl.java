@@ -5,41 +5,56 @@ import com.spring.recipes.entities.Recipe;
 import com.spring.recipes.entities.user.User;
 import com.spring.recipes.mapper.UserMapper;
 import com.spring.recipes.repo.UserRepository;
+import com.spring.recipes.security.PasswordHasher;
 import com.spring.recipes.services.UserService;
 import lombok.AccessLevel;
-import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * @author Alex Giazitzis
  */
 @Service
-@AllArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class UserServiceImpl implements UserService {
 
     UserRepository userRepository;
-    PasswordEncoder passwordEncoder;
+    PasswordHasher passwordHasher;
     UserMapper userMapper;
+    Executor taskExecutor;
 
-    @Override
-    public void save(final RegisterUserDto dto) {
+    public UserServiceImpl(final UserRepository userRepository, final PasswordHasher passwordHasher,
+                           final UserMapper userMapper,
+                           @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) final Executor taskExecutor) {
 
-        User user = userMapper.getUser(dto);
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
-        userRepository.save(user);
+        this.userRepository = userRepository;
+        this.passwordHasher = passwordHasher;
+        this.userMapper = userMapper;
+        this.taskExecutor = taskExecutor;
 
     }
 
+    /**
+     * Hashes the password of the new user on the {@link com.spring.recipes.security.PasswordHasher} pool and saves the
+     * user once it is done on the application task executor, which also runs the async requests, so the hashing threads
+     * never hold a database connection.
+     * @throws java.util.concurrent.RejectedExecutionException if the hashing pool is saturated.
+     */
     @Override
-    public void update(final User user, final Recipe recipe) {
+    public CompletableFuture<Void> save(final RegisterUserDto dto) {
 
-        user.getRecipes().add(recipe);
-        userRepository.save(user);
+        User user = userMapper.getUser(dto);
+        return passwordHasher.hash(user.getPassword())
+                             .thenAcceptAsync(hash -> {
+                                 user.setPassword(hash);
+                                 userRepository.save(user);
+                             }, taskExecutor);
 
     }
 
@@ -58,22 +73,15 @@ public class UserServiceImpl implements UserService {
 
     }
 
-    @Override
-    public boolean removeRecipeFromUser(final Recipe recipe, final Long id) {
-
-        Optional<User> user = userRepository.findById(id);
-        return user.map(value -> value.getRecipes().remove(recipe)).orElse(false);
-
-    }
-
+    /**
+     * Answered from the author the recipe was loaded with. Its id is read without initializing the author, so no
+     * statement is sent, however many recipes the user has.
+     */
     @Override
     public boolean isRecipeOfUser(final Recipe recipe, final Long id) {
 
-        Optional<User> user = userRepository.findById(id);
-        if (user.isEmpty()) {
-            return false;
-        }
-        return user.get().getRecipes().contains(recipe);
+        User author = recipe.getAuthor();
+        return author != null && author.getId().equals(id);
 
     }
 }
@@ -0,0 +1,156 @@
+package com.spring.recipes.statistics;
+
+import com.spring.recipes.config.StatisticsProperties;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.*;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * The {@code hibernate} actuator endpoint. Turns Hibernate's {@link org.hibernate.stat.Statistics} into a report of
+ * the queries that take the most time in total and at most, how often every entity and collection is fetched, the hit
+ * ratios of the second-level and query caches, and the recent entries of the {@link SlowHqlLog}.
+ *
+ * @author Alex Giazitzis
+ */
+@Component
+@Endpoint(id = "hibernate")
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class HibernateStatisticsEndpoint {
+
+    EntityManagerFactory entityManagerFactory;
+    SlowHqlLog           slowHqlLog;
+    StatisticsProperties statisticsProperties;
+
+    /**
+     * @param top number of queries listed by total and by max time, defaults to {@link StatisticsProperties#getTopQueries()}.
+     * @return the report, keyed by section.
+     */
+    @ReadOperation
+    public Map<String, Object> report(@Nullable final Integer top) {
+
+        Statistics statistics = statistics();
+        int limit = top == null ? statisticsProperties.getTopQueries() : top;
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("enabled", statistics.isStatisticsEnabled());
+        report.put("since", statistics.getStartTime());
+        report.put("statements", statistics.getPrepareStatementCount());
+        report.put("queriesByTotalTime", topQueries(statistics, limit, QueryStatistics::getExecutionTotalTime));
+        report.put("queriesByMaxTime", topQueries(statistics, limit, QueryStatistics::getExecutionMaxTime));
+        report.put("entities", entities(statistics));
+        report.put("collections", collections(statistics));
+        report.put("secondLevelCache", secondLevelCache(statistics));
+        report.put("queryCache", ratio(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount(),
+                                       statistics.getQueryCachePutCount()));
+        report.put("slowHqlQueries", slowHqlLog.recent());
+        return report;
+
+    }
+
+    /**
+     * Resets the statistics and empties the slow HQL log.
+     */
+    @DeleteOperation
+    public void clear() {
+
+        statistics().clear();
+        slowHqlLog.clear();
+
+    }
+
+    private Statistics statistics() {
+
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+    }
+
+    private static List<Map<String, Object>> topQueries(final Statistics statistics, final int limit,
+                                                        final ToLongFunction<QueryStatistics> time) {
+
+        return Arrays.stream(statistics.getQueries())
+                     .map(query -> Map.entry(query, statistics.getQueryStatistics(query)))
+                     .sorted(Comparator.comparingLong((Map.Entry<String, QueryStatistics> entry) -> time.applyAsLong(entry.getValue()))
+                                       .reversed())
+                     .limit(Math.max(0, limit))
+                     .map(entry -> {
+                         QueryStatistics query = entry.getValue();
+                         Map<String, Object> row = new LinkedHashMap<>();
+                         row.put("query", SlowHqlLog.redact(entry.getKey()));
+                         row.put("executions", query.getExecutionCount());
+                         row.put("totalMillis", query.getExecutionTotalTime());
+                         row.put("maxMillis", query.getExecutionMaxTime());
+                         row.put("averageMillis", query.getExecutionAvgTime());
+                         row.put("rows", query.getExecutionRowCount());
+                         return row;
+                     })
+                     .collect(Collectors.toList());
+
+    }
+
+    private static Map<String, Object> entities(final Statistics statistics) {
+
+        Map<String, Object> entities = new TreeMap<>();
+        for (String name : statistics.getEntityNames()) {
+            entities.put(name, Map.of("fetches", statistics.getEntityStatistics(name).getFetchCount(),
+                                      "loads", statistics.getEntityStatistics(name).getLoadCount()));
+        }
+        return entities;
+
+    }
+
+    private static Map<String, Object> collections(final Statistics statistics) {
+
+        Map<String, Object> collections = new TreeMap<>();
+        for (String role : statistics.getCollectionRoleNames()) {
+            collections.put(role, Map.of("fetches", statistics.getCollectionStatistics(role).getFetchCount(),
+                                         "loads", statistics.getCollectionStatistics(role).getLoadCount()));
+        }
+        return collections;
+
+    }
+
+    private static Map<String, Object> secondLevelCache(final Statistics statistics) {
+
+        Map<String, Object> cache = ratio(statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount(),
+                                          statistics.getSecondLevelCachePutCount());
+        Map<String, Object> regions = new TreeMap<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics == null) {
+                continue;
+            }
+            regions.put(region, ratio(regionStatistics.getHitCount(), regionStatistics.getMissCount(),
+                                      regionStatistics.getPutCount()));
+        }
+        cache.put("regions", regions);
+        return cache;
+
+    }
+
+    private static Map<String, Object> ratio(final long hits, final long misses, final long puts) {
+
+        Map<String, Object> ratio = new LinkedHashMap<>();
+        ratio.put("hits", hits);
+        ratio.put("misses", misses);
+        ratio.put("puts", puts);
+        ratio.put("hitRatio", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        return ratio;
+
+    }
+
+}
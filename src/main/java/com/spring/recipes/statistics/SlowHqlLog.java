@@ -0,0 +1,132 @@
+package com.spring.recipes.statistics;
+
+import com.spring.recipes.config.StatisticsProperties;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.internal.StatisticsImpl;
+import org.hibernate.stat.internal.StatisticsInitiator;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.hibernate.stat.spi.StatisticsImplementor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Ring buffer of the most recent HQL and JPQL queries that ran slower than
+ * {@link StatisticsProperties#getSlowHqlThreshold()}. Hibernate's statistics only time queries, not the SQL statements
+ * they are translated to, so the log holds the queries as written, not SQL. Registered as Hibernate's
+ * {@link org.hibernate.stat.spi.StatisticsFactory} while statistics are enabled, wrapping the statistics Hibernate
+ * would build anyway behind the {@link org.hibernate.stat.spi.StatisticsImplementor} interface rather than extending
+ * them. String and numeric literals are replaced by {@code ?}, so values written into the query text are never kept;
+ * values bound as parameters never reach it in the first place.
+ *
+ * @author Alex Giazitzis
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class SlowHqlLog implements StatisticsFactory, HibernatePropertiesCustomizer {
+
+    private static final Pattern STRING_LITERAL  = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMERIC_LITERAL = Pattern.compile("(?<![\\w:.])\\d+(?:\\.\\d+)?\\b");
+
+    boolean        enabled;
+    long           thresholdMillis;
+    SlowHqlQuery[] entries;
+
+    @NonFinal
+    int next;
+
+    @NonFinal
+    int size;
+
+    public SlowHqlLog(final StatisticsProperties properties) {
+
+        this.enabled = properties.isEnabled();
+        this.thresholdMillis = properties.getSlowHqlThreshold().toMillis();
+        this.entries = new SlowHqlQuery[properties.getSlowHqlLogSize()];
+
+    }
+
+    @Override
+    public void customize(final Map<String, Object> hibernateProperties) {
+
+        if (enabled) {
+            hibernateProperties.put(StatisticsInitiator.STATS_BUILDER, this);
+        }
+
+    }
+
+    @Override
+    public StatisticsImplementor buildStatistics(final SessionFactoryImplementor sessionFactory) {
+
+        StatisticsImplementor statistics = new StatisticsImpl(sessionFactory);
+        InvocationHandler recording = (proxy, method, args) -> {
+            Object result;
+            try {
+                result = method.invoke(statistics, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if ("queryExecuted".equals(method.getName())) {
+                record((String) args[0], (int) args[1], (long) args[2]);
+            }
+            return result;
+        };
+        return (StatisticsImplementor) Proxy.newProxyInstance(StatisticsImplementor.class.getClassLoader(),
+                                                              new Class<?>[]{StatisticsImplementor.class}, recording);
+
+    }
+
+    /**
+     * @return the slow queries kept, the most recent first.
+     */
+    public synchronized List<SlowHqlQuery> recent() {
+
+        List<SlowHqlQuery> recent = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            recent.add(entries[(next - i + entries.length) % entries.length]);
+        }
+        return recent;
+
+    }
+
+    public synchronized void clear() {
+
+        next = 0;
+        size = 0;
+
+    }
+
+    private void record(final String query, final int rows, final long millis) {
+
+        if (millis < thresholdMillis || entries.length == 0) {
+            return;
+        }
+
+        SlowHqlQuery slowQuery = new SlowHqlQuery(Instant.now(), redact(query), millis, rows);
+        synchronized (this) {
+            entries[next] = slowQuery;
+            next = (next + 1) % entries.length;
+            size = Math.min(size + 1, entries.length);
+        }
+
+    }
+
+    static String redact(final String query) {
+
+        String redacted = STRING_LITERAL.matcher(query).replaceAll("?");
+        return NUMERIC_LITERAL.matcher(redacted).replaceAll("?");
+
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.spring.recipes.statistics;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+import java.time.Instant;
+
+/**
+ * An HQL or JPQL query that took longer than the slow HQL threshold, with its literals redacted.
+ *
+ * @author Alex Giazitzis
+ */
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Getter
+public class SlowHqlQuery {
+
+    Instant executedAt;
+    String  query;
+    long    millis;
+    int     rows;
+
+}
@@ -0,0 +1,38 @@
+package com.spring.recipes.timing;
+
+/**
+ * The phases of a request whose time is measured by {@link RequestTiming}. Phases don't overlap: time spent in a phase
+ * while another one is being timed, e.g. the user lookup made while authenticating, only counts towards the inner one.
+ *
+ * @author Alex Giazitzis
+ */
+public enum Phase {
+
+    /**
+     * Verifying the credentials of the request, password hashing included and the user lookup left to {@link #DB}.
+     */
+    AUTH("auth"),
+
+    /**
+     * Calls to the Spring Data repositories. Collections loaded lazily outside a repository call, e.g. while mapping,
+     * count towards the phase they were loaded in.
+     */
+    DB("db"),
+
+    /**
+     * Mapping entities to the DTOs returned.
+     */
+    MAPPING("map"),
+
+    /**
+     * Writing the response body, in whichever of JSON, CBOR or Smile was negotiated.
+     */
+    SERIALIZATION("body");
+
+    final String metric;
+
+    Phase(final String metric) {
+        this.metric = metric;
+    }
+
+}
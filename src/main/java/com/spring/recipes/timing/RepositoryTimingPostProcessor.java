@@ -0,0 +1,30 @@
+package com.spring.recipes.timing;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adds a listener to every Spring Data repository that records the duration of each repository method call in the
+ * {@link Phase#DB} phase of the current {@link RequestTiming}.
+ *
+ * @author Alex Giazitzis
+ */
+@Component
+public class RepositoryTimingPostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessBeforeInitialization(final Object bean, final String beanName) {
+
+        if (bean instanceof RepositoryFactoryBeanSupport) {
+            ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(
+                    factory -> factory.addInvocationListener(
+                            invocation -> RequestTiming.record(Phase.DB, invocation.getDuration(TimeUnit.NANOSECONDS))));
+        }
+        return bean;
+
+    }
+
+}
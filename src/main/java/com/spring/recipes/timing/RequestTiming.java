@@ -0,0 +1,154 @@
+package com.spring.recipes.timing;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Time spent in each {@link Phase} of the request handled by the current thread, along with the number of SQL
+ * statements it executed. Started and ended by the {@link ServerTimingFilter}; outside of it, e.g. on the threads that
+ * write streamed responses, nothing is recorded.
+ *
+ * @author Alex Giazitzis
+ */
+public final class RequestTiming {
+
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+
+    private final long   start     = System.nanoTime();
+    private final long[] durations = new long[Phase.values().length];
+    private int          statements;
+    private long         serializationStart;
+    private long         enclosed;
+
+    private RequestTiming() {
+    }
+
+    static RequestTiming begin() {
+
+        RequestTiming timing = new RequestTiming();
+        CURRENT.set(timing);
+        return timing;
+
+    }
+
+    static void end() {
+
+        CURRENT.remove();
+
+    }
+
+    /**
+     * Adds time spent in a phase to the request handled by the current thread, if any. If it was spent while another
+     * phase was being timed by {@link RequestTiming#time(Phase, Supplier)}, it is left out of that phase.
+     * @param phase {@link Phase} the time was spent in.
+     * @param nanos spent in the phase.
+     */
+    public static void record(final Phase phase, final long nanos) {
+
+        RequestTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.durations[phase.ordinal()] += nanos;
+            timing.enclosed += nanos;
+        }
+
+    }
+
+    /**
+     * Runs {@code work} and adds the time it took to a phase of the request handled by the current thread, if any,
+     * leaving out the time recorded for other phases while it ran.
+     * @param phase {@link Phase} the work belongs to.
+     * @param work  to run.
+     * @return the result of {@code work}.
+     */
+    public static <T> T time(final Phase phase, final Supplier<T> work) {
+
+        RequestTiming timing = CURRENT.get();
+        if (timing == null) {
+            return work.get();
+        }
+
+        long outer = timing.enclosed;
+        timing.enclosed = 0;
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            long took = System.nanoTime() - start;
+            timing.durations[phase.ordinal()] += took - timing.enclosed;
+            timing.enclosed = outer + took;
+        }
+
+    }
+
+    static Optional<RequestTiming> current() {
+
+        return Optional.ofNullable(CURRENT.get());
+
+    }
+
+    void countStatement() {
+
+        statements++;
+
+    }
+
+    void startSerialization() {
+
+        serializationStart = System.nanoTime();
+
+    }
+
+    /**
+     * Closes the serialization phase, if the response had a body, and the request as a whole.
+     * @return the nanoseconds the request took.
+     */
+    long finish() {
+
+        long end = System.nanoTime();
+        if (serializationStart != 0) {
+            durations[Phase.SERIALIZATION.ordinal()] = end - serializationStart;
+        }
+        return end - start;
+
+    }
+
+    /**
+     * @param total nanoseconds the request took.
+     * @return the timings as the value of a {@code Server-Timing} header.
+     */
+    String toServerTiming(final long total) {
+
+        StringBuilder header = new StringBuilder();
+        for (Phase phase : Phase.values()) {
+            header.append(phase.metric).append(";dur=").append(millis(durations[phase.ordinal()]));
+            if (phase == Phase.DB) {
+                header.append(";desc=\"").append(statements).append(" statements\"");
+            }
+            header.append(", ");
+        }
+        return header.append("total;dur=").append(millis(total)).toString();
+
+    }
+
+    /**
+     * @param total nanoseconds the request took.
+     * @return the timings as {@code key=value} pairs for a log record.
+     */
+    String toLogFields(final long total) {
+
+        StringBuilder fields = new StringBuilder("total_ms=").append(millis(total));
+        for (Phase phase : Phase.values()) {
+            fields.append(' ').append(phase.metric).append("_ms=").append(millis(durations[phase.ordinal()]));
+        }
+        return fields.append(" statements=").append(statements).toString();
+
+    }
+
+    private static String millis(final long nanos) {
+
+        return String.format(Locale.ROOT, "%.2f", nanos / 1_000_000.0);
+
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.spring.recipes.timing;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+import org.springframework.web.util.WebUtils;
+
+import java.util.Optional;
+
+/**
+ * Marks the start of the {@link Phase#SERIALIZATION} phase right before a response body is written, and has the
+ * {@link ServerTimingResponse}, if any, hold the body back until the timings are known.
+ *
+ * @author Alex Giazitzis
+ */
+@ControllerAdvice
+public class ServerTimingAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(final MethodParameter returnType,
+                            final Class<? extends HttpMessageConverter<?>> converterType) {
+
+        return true;
+
+    }
+
+    @Override
+    public Object beforeBodyWrite(final Object body, final MethodParameter returnType, final MediaType contentType,
+                                  final Class<? extends HttpMessageConverter<?>> converterType,
+                                  final ServerHttpRequest request, final ServerHttpResponse response) {
+
+        Optional<RequestTiming> timing = RequestTiming.current();
+        if (timing.isEmpty()) {
+            return body;
+        }
+
+        timing.get().startSerialization();
+        if (response instanceof ServletServerHttpResponse) {
+            ServerTimingResponse timed = WebUtils.getNativeResponse(((ServletServerHttpResponse) response).getServletResponse(),
+                                                                    ServerTimingResponse.class);
+            if (timed != null) {
+                timed.startBuffering();
+            }
+        }
+        return body;
+
+    }
+
+}
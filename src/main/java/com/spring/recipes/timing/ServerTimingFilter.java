@@ -0,0 +1,83 @@
+package com.spring.recipes.timing;
+
+import com.spring.recipes.config.TimingProperties;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Measures where the time of every /api/** request goes, through a {@link RequestTiming} that the authentication,
+ * repositories, mapping and serialization record their {@link Phase}s in. The timings are sent back in a
+ * {@code Server-Timing} header if {@link TimingProperties#isServerTimingHeader()} is set, and requests slower than
+ * {@link TimingProperties#getSlowRequestThreshold()} are logged with them. Runs ahead of the security filters, so
+ * authentication is part of the measured time. Streamed responses are finished on other threads and aren't reported.
+ *
+ * @author Alex Giazitzis
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    private static final String HEADER = "Server-Timing";
+
+    TimingProperties timingProperties;
+
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+                                    final FilterChain filterChain) throws ServletException, IOException {
+
+        RequestTiming timing = RequestTiming.begin();
+        ServerTimingResponse timed = timingProperties.isServerTimingHeader() ? new ServerTimingResponse(response) : null;
+
+        try {
+            filterChain.doFilter(request, timed == null ? response : timed);
+        } finally {
+            RequestTiming.end();
+            if (!request.isAsyncStarted()) {
+                report(request, response, timing, timed);
+            }
+        }
+
+    }
+
+    private void report(final HttpServletRequest request, final HttpServletResponse response, final RequestTiming timing,
+                        final ServerTimingResponse timed) throws IOException {
+
+        long total = timing.finish();
+
+        if (timed != null) {
+            if (!response.isCommitted()) {
+                response.setHeader(HEADER, timing.toServerTiming(total));
+            }
+            timed.copyBodyToResponse();
+        }
+
+        if (total > timingProperties.getSlowRequestThreshold().toNanos()) {
+            log.warn("Slow request method={} uri={} status={} {}", request.getMethod(), request.getRequestURI(),
+                     response.getStatus(), timing.toLogFields(total));
+        }
+
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.spring.recipes.timing;
+
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Response that passes everything through to the wrapped one until {@link ServerTimingResponse#startBuffering()} is
+ * called, after which the body is held back so the {@code Server-Timing} header can still be set once it is written.
+ * Streamed responses never start buffering and are written as they are produced.
+ *
+ * @author Alex Giazitzis
+ */
+class ServerTimingResponse extends ContentCachingResponseWrapper {
+
+    private boolean buffering;
+
+    ServerTimingResponse(final HttpServletResponse response) {
+        super(response);
+    }
+
+    void startBuffering() {
+        buffering = true;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        return buffering ? super.getOutputStream() : getResponse().getOutputStream();
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        return buffering ? super.getWriter() : getResponse().getWriter();
+    }
+
+    @Override
+    public void setContentLength(final int len) {
+
+        if (buffering) {
+            super.setContentLength(len);
+        } else {
+            getResponse().setContentLength(len);
+        }
+
+    }
+
+    @Override
+    public void setContentLengthLong(final long len) {
+
+        if (buffering) {
+            super.setContentLengthLong(len);
+        } else {
+            getResponse().setContentLengthLong(len);
+        }
+
+    }
+
+    @Override
+    public void resetBuffer() {
+
+        if (buffering) {
+            super.resetBuffer();
+        } else {
+            getResponse().resetBuffer();
+        }
+
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+
+        if (!buffering) {
+            getResponse().flushBuffer();
+        }
+
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.spring.recipes.timing;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hibernate {@link org.hibernate.resource.jdbc.spi.StatementInspector} counting the SQL statements prepared while
+ * handling a request, so N+1 loads show up in its {@link RequestTiming}. Registered through the
+ * {@code hibernate.session_factory.statement_inspector} property.
+ *
+ * @author Alex Giazitzis
+ */
+public class StatementCounter implements StatementInspector {
+
+    @Override
+    public String inspect(final String sql) {
+
+        RequestTiming.current().ifPresent(RequestTiming::countStatement);
+        return sql;
+
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.spring.recipes.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.BiPredicate;
+
+/**
+ * A small, thread safe, size bounded cache that evicts the entries least likely to be used again once it is full and
+ * treats entries older than the configured time to live as absent. Backed by a Caffeine {@link Cache}, so concurrent
+ * lookups don't contend on a single lock.
+ *
+ * @param <K> type of the keys.
+ * @param <V> type of the cached values.
+ * @author Alex Giazitzis
+ */
+public class ExpiringCache<K, V> {
+
+    private final Cache<K, V> entries;
+
+    /**
+     * @param maxSize the maximum number of entries held before the ones least likely to be used again get evicted.
+     * @param ttl     how long an entry stays valid after it was put in the cache.
+     */
+    public ExpiringCache(final int maxSize, final Duration ttl) {
+
+        this.entries = Caffeine.newBuilder()
+                               .maximumSize(maxSize)
+                               .expireAfterWrite(ttl)
+                               .build();
+
+    }
+
+    /**
+     * Looks up the value cached under {@code key}, if it hasn't expired.
+     * @param key to look up.
+     * @return {@link java.util.Optional} of the cached value that may or may not exist.
+     */
+    public Optional<V> get(final K key) {
+
+        return Optional.ofNullable(entries.getIfPresent(key));
+
+    }
+
+    public void put(final K key, final V value) {
+
+        entries.put(key, value);
+
+    }
+
+    /**
+     * Removes every entry matching the passed predicate, whether it has expired or not.
+     * @param predicate tested against each key and value pair.
+     */
+    public void removeIf(final BiPredicate<? super K, ? super V> predicate) {
+
+        entries.asMap().entrySet().removeIf(entry -> predicate.test(entry.getKey(), entry.getValue()));
+
+    }
+
+    public void clear() {
+
+        entries.invalidateAll();
+
+    }
+
+    public int size() {
+
+        return (int) entries.estimatedSize();
+
+    }
+
+}
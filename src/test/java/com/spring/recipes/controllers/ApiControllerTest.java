@@ -0,0 +1,234 @@
+package com.spring.recipes.controllers;
+
+import com.spring.recipes.entities.Recipe;
+import com.spring.recipes.entities.user.User;
+import com.spring.recipes.repo.RecipeRepository;
+import com.spring.recipes.repo.UserRepository;
+import com.spring.recipes.search.Cursor;
+import com.spring.recipes.services.RecipeService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Calls the /api/** endpoints of the {@link ApiController} as a registered user, with a maximum page size of 3. The
+ * {@link RecipeService} is spied on to simulate concurrent updates.
+ *
+ * @author Alex Giazitzis
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:api;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.sql.init.mode=never",
+        "recipes.rate-limit.enabled=false",
+        "recipes.search.max-page-size=3"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ApiControllerTest {
+
+    private static final String        EMAIL    = "api@example.com";
+    private static final String        PASSWORD = "password";
+    private static final LocalDateTime DAY      = LocalDateTime.of(2022, 1, 1, 12, 0);
+    private static final String        BREAD    = "{\"name\":\"Focaccia\",\"category\":\"Bread\",\"description\":\"Oily\"," +
+                                                  "\"ingredients\":[\"flour\"],\"directions\":[\"bake\"]}";
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    RecipeRepository recipeRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    PasswordEncoder passwordEncoder;
+
+    @SpyBean
+    RecipeService recipeService;
+
+    User         author;
+    List<Recipe> desserts = new ArrayList<>();
+
+    @BeforeAll
+    void seed() {
+
+        User user = new User();
+        user.setEmail(EMAIL);
+        user.setPassword(passwordEncoder.encode(PASSWORD));
+        user.setRole("ROLE_USER");
+        author = userRepository.save(user);
+
+        for (int i = 0; i < 5; i++) {
+            desserts.add(save("Dessert " + i, "Dessert", DAY.minusDays(i)));
+        }
+
+    }
+
+    @Test
+    void recipeIsSentWithItsVersionAsETagAndNotResentWhileItMatches() throws Exception {
+
+        Recipe bread = save("Ciabatta", "Bread", DAY);
+        String eTag = "\"" + bread.getVersion() + "\"";
+
+        mockMvc.perform(authenticated(get("/api/recipe/{id}", bread.getId())))
+               .andExpect(status().isOk())
+               .andExpect(header().string(HttpHeaders.ETAG, eTag))
+               .andExpect(jsonPath("$.name").value("Ciabatta"));
+        verify(recipeService, never()).getRecipeDto(bread.getId());
+
+        mockMvc.perform(authenticated(get("/api/recipe/{id}", bread.getId())).header(HttpHeaders.IF_NONE_MATCH, eTag))
+               .andExpect(status().isNotModified());
+
+        mockMvc.perform(authenticated(get("/api/recipe/{id}", bread.getId())).header(HttpHeaders.IF_NONE_MATCH, "\"-1\""))
+               .andExpect(status().isOk());
+
+    }
+
+    @Test
+    void updateIsRejectedWith412WhenIfMatchIsStale() throws Exception {
+
+        Recipe bread = save("Ciabatta", "Bread", DAY);
+        String eTag = "\"" + bread.getVersion() + "\"";
+
+        mockMvc.perform(authenticated(put("/api/recipe/{id}", bread.getId())).header(HttpHeaders.IF_MATCH, "\"-1\"")
+                                                                             .contentType(MediaType.APPLICATION_JSON)
+                                                                             .content(BREAD))
+               .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(authenticated(put("/api/recipe/{id}", bread.getId())).header(HttpHeaders.IF_MATCH, eTag)
+                                                                             .contentType(MediaType.APPLICATION_JSON)
+                                                                             .content(BREAD))
+               .andExpect(status().isNoContent())
+               .andExpect(header().string(HttpHeaders.ETAG, "\"" + (bread.getVersion() + 1) + "\""));
+
+        mockMvc.perform(authenticated(put("/api/recipe/{id}", bread.getId())).header(HttpHeaders.IF_MATCH, eTag)
+                                                                             .contentType(MediaType.APPLICATION_JSON)
+                                                                             .content(BREAD))
+               .andExpect(status().isPreconditionFailed());
+
+    }
+
+    @Test
+    void concurrentUpdateWithoutIfMatchIsAConflict() throws Exception {
+
+        Recipe bread = save("Ciabatta", "Bread", DAY);
+        doThrow(new ObjectOptimisticLockingFailureException(Recipe.class, bread.getId()))
+                .when(recipeService).update(eq(bread.getId()), any(), isNull());
+
+        mockMvc.perform(authenticated(put("/api/recipe/{id}", bread.getId())).contentType(MediaType.APPLICATION_JSON)
+                                                                             .content(BREAD))
+               .andExpect(status().isConflict());
+
+    }
+
+    @Test
+    void pagesAreChainedThroughTheNextCursor() throws Exception {
+
+        MvcResult first = mockMvc.perform(authenticated(get("/api/recipe/search").param("category", "dessert")
+                                                                                 .param("limit", "2")))
+                                 .andExpect(status().isOk())
+                                 .andExpect(jsonPath("$[*].name", contains("Dessert 0", "Dessert 1")))
+                                 .andReturn();
+        String next = first.getResponse().getHeader("X-Next-Cursor");
+        assertThat(Cursor.decode(next)).isEqualTo(Cursor.of(DAY.minusDays(1), desserts.get(1).getId()));
+
+        MvcResult second = mockMvc.perform(authenticated(get("/api/recipe/search").param("category", "dessert")
+                                                                                  .param("limit", "2")
+                                                                                  .param("cursor", next)))
+                                  .andExpect(status().isOk())
+                                  .andExpect(jsonPath("$[*].name", contains("Dessert 2", "Dessert 3")))
+                                  .andReturn();
+
+        String last = second.getResponse().getHeader("X-Next-Cursor");
+        mockMvc.perform(authenticated(get("/api/recipe/search").param("category", "dessert")
+                                                               .param("limit", "2")
+                                                               .param("cursor", last)))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$[*].name", contains("Dessert 4")))
+               .andExpect(header().doesNotExist("X-Next-Cursor"));
+
+    }
+
+    @Test
+    void pageSizeIsCappedAtTheConfiguredMaximum() throws Exception {
+
+        mockMvc.perform(authenticated(get("/api/recipe/search").param("category", "dessert").param("limit", "50")))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$[*].name", contains("Dessert 0", "Dessert 1", "Dessert 2")))
+               .andExpect(header().exists("X-Next-Cursor"));
+
+        mockMvc.perform(authenticated(get("/api/recipe/latest")))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.length()").value(3));
+
+    }
+
+    @Test
+    void badCursorsAndLimitsAreRejected() throws Exception {
+
+        mockMvc.perform(authenticated(get("/api/recipe/search").param("category", "dessert")
+                                                               .param("cursor", "not-a-cursor")))
+               .andExpect(status().isBadRequest());
+        mockMvc.perform(authenticated(get("/api/recipe/latest").param("cursor", "%%%")))
+               .andExpect(status().isBadRequest());
+        mockMvc.perform(authenticated(get("/api/recipe/search").param("category", "dessert").param("limit", "0")))
+               .andExpect(status().isBadRequest());
+
+    }
+
+    private Recipe save(final String name, final String category, final LocalDateTime date) {
+
+        Recipe recipe = new Recipe();
+        recipe.setAuthor(author);
+        recipe.setName(name);
+        recipe.setCategory(category);
+        recipe.setDescription("Test");
+        recipe.setDate(date);
+        recipe.setIngredients(List.of("flour"));
+        recipe.setDirections(List.of("bake"));
+        return recipeRepository.save(recipe);
+
+    }
+
+    private static MockHttpServletRequestBuilder authenticated(final MockHttpServletRequestBuilder request) {
+
+        String credentials = Base64.getEncoder()
+                                   .encodeToString((EMAIL + ":" + PASSWORD).getBytes(StandardCharsets.UTF_8));
+        return request.header(HttpHeaders.AUTHORIZATION, "Basic " + credentials);
+
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.spring.recipes.datasource;
+
+import com.spring.recipes.dto.RecipeDto;
+import com.spring.recipes.entities.user.User;
+import com.spring.recipes.repo.UserRepository;
+import com.spring.recipes.services.RecipeService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routes the {@link RecipeService} through two separate in-memory H2 databases, the replica being copied from the
+ * primary on startup only, so every read shows which of them it was sent to.
+ *
+ * @author Alex Giazitzis
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.sql.init.mode=never",
+        "recipes.search.result-cache.enabled=false",
+        "recipes.datasource.routing.enabled=true",
+        "recipes.datasource.routing.copy-primary-on-startup=true",
+        "recipes.datasource.routing.replicas[0].url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1",
+        "recipes.datasource.routing.replicas[0].username=sa",
+        "recipes.datasource.routing.replicas[0].password="
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReadWriteRoutingDataSourceTest {
+
+    @Autowired
+    RecipeService recipeService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    ReplicaSnapshot replicaSnapshot;
+
+    JdbcTemplate primary = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1", "sa", ""));
+    JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1", "sa", ""));
+
+    User author;
+
+    @BeforeAll
+    void seed() {
+
+        User user = new User();
+        user.setEmail("routing@example.com");
+        user.setPassword("password");
+        user.setRole("ROLE_USER");
+        author = userRepository.save(user);
+
+    }
+
+    @Test
+    void writesGoToThePrimaryAndReadOnlyReadsToTheReplica() {
+
+        Long id = recipeService.save(recipe("Focaccia"), author.getId());
+
+        assertThat(name(primary, id)).containsExactly("Focaccia");
+        assertThat(name(replica, id)).isEmpty();
+        assertThat(recipeService.getRecipeDto(id)).isEmpty();
+
+        replicaSnapshot.copy();
+
+        assertThat(recipeService.getRecipeDto(id)).map(RecipeDto::getName).contains("Focaccia");
+
+    }
+
+    @Test
+    void updatesReadAndWriteThePrimary() {
+
+        Long id = recipeService.save(recipe("Ciabatta"), author.getId());
+        replicaSnapshot.copy();
+
+        assertThat(recipeService.update(id, recipe("Baguette"), null)).isPresent();
+
+        assertThat(name(primary, id)).containsExactly("Baguette");
+        assertThat(name(replica, id)).containsExactly("Ciabatta");
+        assertThat(recipeService.getRecipeDto(id)).map(RecipeDto::getName).contains("Ciabatta");
+
+    }
+
+    private static List<String> name(final JdbcTemplate database, final Long id) {
+
+        return database.queryForList("SELECT name FROM recipe WHERE id = ?", String.class, id);
+
+    }
+
+    private static RecipeDto recipe(final String name) {
+
+        return new RecipeDto(name, "Bread", "A " + name.toLowerCase(), List.of("flour", "water"), List.of("knead", "bake"));
+
+    }
+
+}
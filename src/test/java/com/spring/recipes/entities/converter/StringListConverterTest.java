@@ -0,0 +1,85 @@
+package com.spring.recipes.entities.converter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Round trips lists through the {@link StringListConverter} encoding.
+ *
+ * @author Alex Giazitzis
+ */
+class StringListConverterTest {
+
+    private final StringListConverter converter = new StringListConverter();
+
+    @Test
+    void emptyListRoundTrips() {
+
+        assertThat(roundTrip(List.of())).isEmpty();
+
+    }
+
+    @Test
+    void nullColumnIsReadAsEmptyList() {
+
+        assertThat(converter.convertToDatabaseColumn(null)).isNull();
+        assertThat(converter.convertToEntityAttribute(null)).isEmpty();
+
+    }
+
+    @Test
+    void orderAndEmptyStringsArePreserved() {
+
+        List<String> values = List.of("2 eggs", "", "flour", "2 eggs");
+
+        assertThat(roundTrip(values)).containsExactlyElementsOf(values);
+
+    }
+
+    @Test
+    void nonAsciiStringsRoundTrip() {
+
+        List<String> values = List.of("crème brûlée", "Ζάχαρη", "味噌", "🌶️ chili");
+
+        assertThat(roundTrip(values)).containsExactlyElementsOf(values);
+
+    }
+
+    @Test
+    void stringsLongerThanASingleLengthByteRoundTrip() {
+
+        List<String> values = new ArrayList<>();
+        values.add("a".repeat(127));
+        values.add("b".repeat(128));
+        values.add("é".repeat(100_000));
+        for (int i = 0; i < 300; i++) {
+            values.add("step " + i);
+        }
+
+        assertThat(roundTrip(values)).containsExactlyElementsOf(values);
+
+    }
+
+    @Test
+    void unknownFormatVersionIsRejected() {
+
+        byte[] column = converter.convertToDatabaseColumn(List.of("salt"));
+        column[0] = 42;
+
+        assertThatIllegalArgumentException().isThrownBy(() -> converter.convertToEntityAttribute(column))
+                                            .withMessageContaining("42");
+
+    }
+
+    private List<String> roundTrip(final List<String> values) {
+
+        return converter.convertToEntityAttribute(converter.convertToDatabaseColumn(values));
+
+    }
+
+}
@@ -0,0 +1,169 @@
+package com.spring.recipes.migration;
+
+import com.spring.recipes.config.MigrationProperties;
+import com.spring.recipes.entities.converter.StringListConverter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Runs the {@link CollectionTableMigration} against an in-memory H2 database holding the former collection tables.
+ *
+ * @author Alex Giazitzis
+ */
+class CollectionTableMigrationTest {
+
+    private final StringListConverter converter = new StringListConverter();
+
+    DriverManagerDataSource dataSource;
+    JdbcTemplate            jdbcTemplate;
+    TransactionTemplate     transactionTemplate;
+
+    @BeforeEach
+    void createFormerSchema() {
+
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:migration;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        jdbcTemplate.execute("CREATE TABLE recipe (id BIGINT PRIMARY KEY, ingredients_data VARBINARY(1000000), " +
+                             "directions_data VARBINARY(1000000))");
+        jdbcTemplate.execute("CREATE TABLE recipe_ingredients (id BIGINT NOT NULL, ingredients VARCHAR(255), " +
+                             "FOREIGN KEY (id) REFERENCES recipe (id))");
+        jdbcTemplate.execute("CREATE TABLE recipe_directions (id BIGINT NOT NULL, directions VARCHAR(255), " +
+                             "FOREIGN KEY (id) REFERENCES recipe (id))");
+
+    }
+
+    @AfterEach
+    void dropSchema() {
+
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+
+    }
+
+    @Test
+    void nothingIsCopiedUnlessEnabled() {
+
+        insertRecipe(1L, List.of("salt"), List.of("stir"));
+
+        new CollectionTableMigration(jdbcTemplate, transactionTemplate, new MigrationProperties()).afterSingletonsInstantiated();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT ingredients_data FROM recipe WHERE id = 1", byte[].class)).isNull();
+
+    }
+
+    @Test
+    void listsAreCopiedInTheirOriginalOrderAndTheFormerTablesKept() {
+
+        insertRecipe(1L, List.of("salt", "flour", "apple", "flour"), List.of("peel", "bake", "cool"));
+        insertRecipe(2L, List.of(), List.of("wait"));
+
+        migration(jdbcTemplate, false).afterSingletonsInstantiated();
+
+        assertThat(ingredients(1L)).containsExactly("salt", "flour", "apple", "flour");
+        assertThat(directions(1L)).containsExactly("peel", "bake", "cool");
+        assertThat(ingredients(2L)).isEmpty();
+        assertThat(directions(2L)).containsExactly("wait");
+        assertThat(count("recipe_ingredients")).isEqualTo(4);
+
+    }
+
+    @Test
+    void migratedRecipesCanStillBeDeleted() {
+
+        insertRecipe(1L, List.of("salt"), List.of("stir"));
+
+        migration(jdbcTemplate, false).afterSingletonsInstantiated();
+        jdbcTemplate.update("DELETE FROM recipe WHERE id = 1");
+
+        assertThat(count("recipe_ingredients")).isZero();
+        assertThat(count("recipe_directions")).isZero();
+
+    }
+
+    @Test
+    void interruptedMigrationResumesWhereItStopped() {
+
+        for (long id = 1; id <= 5; id++) {
+            insertRecipe(id, List.of("ingredient " + id, "salt"), List.of("direction " + id));
+        }
+        JdbcTemplate interrupted = new JdbcTemplate(dataSource) {
+
+            int batches;
+
+            @Override
+            public int[] batchUpdate(final String sql, final List<Object[]> batchArgs) {
+
+                if (++batches > 1) {
+                    throw new IllegalStateException("Interrupted");
+                }
+                return super.batchUpdate(sql, batchArgs);
+
+            }
+
+        };
+
+        assertThatIllegalStateException().isThrownBy(() -> migration(interrupted, true).afterSingletonsInstantiated());
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM recipe WHERE ingredients_data IS NOT NULL ORDER BY id",
+                                             Long.class)).containsExactly(1L, 2L);
+
+        migration(jdbcTemplate, true).afterSingletonsInstantiated();
+
+        for (long id = 1; id <= 5; id++) {
+            assertThat(ingredients(id)).containsExactly("ingredient " + id, "salt");
+            assertThat(directions(id)).containsExactly("direction " + id);
+        }
+        assertThat(count("information_schema.tables WHERE table_name IN ('RECIPE_INGREDIENTS', 'RECIPE_DIRECTIONS')")).isZero();
+
+    }
+
+    private CollectionTableMigration migration(final JdbcTemplate template, final boolean dropTables) {
+
+        MigrationProperties properties = new MigrationProperties();
+        properties.getCollectionTables().setEnabled(true);
+        properties.getCollectionTables().setDropTables(dropTables);
+        properties.getCollectionTables().setChunkSize(2);
+        return new CollectionTableMigration(template, transactionTemplate, properties);
+
+    }
+
+    private void insertRecipe(final Long id, final List<String> ingredients, final List<String> directions) {
+
+        jdbcTemplate.update("INSERT INTO recipe (id) VALUES (?)", id);
+        ingredients.forEach(ingredient -> jdbcTemplate.update("INSERT INTO recipe_ingredients VALUES (?, ?)", id, ingredient));
+        directions.forEach(direction -> jdbcTemplate.update("INSERT INTO recipe_directions VALUES (?, ?)", id, direction));
+
+    }
+
+    private List<String> ingredients(final Long id) {
+
+        return converter.convertToEntityAttribute(
+                jdbcTemplate.queryForObject("SELECT ingredients_data FROM recipe WHERE id = ?", byte[].class, id));
+
+    }
+
+    private List<String> directions(final Long id) {
+
+        return converter.convertToEntityAttribute(
+                jdbcTemplate.queryForObject("SELECT directions_data FROM recipe WHERE id = ?", byte[].class, id));
+
+    }
+
+    private int count(final String from) {
+
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + from, Integer.class);
+        return count == null ? 0 : count;
+
+    }
+
+}
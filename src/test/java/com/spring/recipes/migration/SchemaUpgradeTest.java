@@ -0,0 +1,76 @@
+package com.spring.recipes.migration;
+
+import com.spring.recipes.entities.Recipe;
+import com.spring.recipes.entities.user.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the {@link SchemaUpgrade} against an in-memory H2 database laid out the way earlier versions left it.
+ *
+ * @author Alex Giazitzis
+ */
+class SchemaUpgradeTest {
+
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void createFormerSchema() {
+
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:upgrade;DB_CLOSE_DELAY=-1", "sa", ""));
+
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE TABLE recipe (id BIGINT PRIMARY KEY, version BIGINT)");
+        jdbcTemplate.execute("CREATE INDEX recipe_id_index ON recipe (id)");
+        jdbcTemplate.execute("CREATE TABLE user_recipes (user_id BIGINT REFERENCES users (id), " +
+                             "recipes_id BIGINT REFERENCES recipe (id))");
+        jdbcTemplate.execute("CREATE SEQUENCE recipe_id_seq START WITH 1 INCREMENT BY 1");
+        jdbcTemplate.execute("CREATE SEQUENCE user_id_seq START WITH 1 INCREMENT BY 1");
+        jdbcTemplate.update("INSERT INTO recipe VALUES (1, NULL), (2, 3)");
+
+    }
+
+    @AfterEach
+    void dropSchema() {
+
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+
+    }
+
+    @Test
+    void formerSchemaIsUpgradedAndUpgradingAgainChangesNothing() {
+
+        SchemaUpgrade upgrade = new SchemaUpgrade(jdbcTemplate);
+
+        upgrade.afterSingletonsInstantiated();
+        upgrade.afterSingletonsInstantiated();
+
+        assertThat(jdbcTemplate.queryForList("SELECT version FROM recipe ORDER BY id", Long.class)).containsExactly(0L, 3L);
+        assertThat(count("information_schema.indexes WHERE index_name = 'RECIPE_ID_INDEX'")).isZero();
+        assertThat(count("information_schema.tables WHERE table_name = 'USER_RECIPES'")).isZero();
+        assertThat(increment("RECIPE_ID_SEQ")).isEqualTo(Recipe.ID_ALLOCATION_SIZE);
+        assertThat(increment("USER_ID_SEQ")).isEqualTo(User.ID_ALLOCATION_SIZE);
+
+    }
+
+    private long increment(final String sequence) {
+
+        Long increment = jdbcTemplate.queryForObject("SELECT increment FROM information_schema.sequences " +
+                                                     "WHERE sequence_name = ?", Long.class, sequence);
+        return increment == null ? 0 : increment;
+
+    }
+
+    private int count(final String from) {
+
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + from, Integer.class);
+        return count == null ? 0 : count;
+
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.spring.recipes.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the generic cell rate algorithm of {@link TokenBuckets} against explicit clock readings, with a rate of 10
+ * requests per second, one every 100ms, and a burst of 3.
+ *
+ * @author Alex Giazitzis
+ */
+class TokenBucketsTest {
+
+    private static final long START = 1_000_000_000L;
+    private static final long MS    = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final TokenBuckets buckets = new TokenBuckets(10, 3);
+
+    @Test
+    void burstIsAdmittedAtOnceAndTheNextRequestWaitsForOneEmissionInterval() {
+
+        assertThat(buckets.tryAcquire("client", START)).isZero();
+        assertThat(buckets.tryAcquire("client", START)).isZero();
+        assertThat(buckets.tryAcquire("client", START)).isZero();
+
+        assertThat(buckets.tryAcquire("client", START)).isEqualTo(100 * MS);
+        assertThat(buckets.tryAcquire("client", START + 40 * MS)).isEqualTo(60 * MS);
+
+    }
+
+    @Test
+    void rejectedRequestsAreNotCharged() {
+
+        for (int i = 0; i < 3; i++) {
+            buckets.tryAcquire("client", START);
+        }
+        for (int i = 0; i < 10; i++) {
+            buckets.tryAcquire("client", START);
+        }
+
+        assertThat(buckets.tryAcquire("client", START + 100 * MS)).isZero();
+
+    }
+
+    @Test
+    void tokensRefillOnePerEmissionIntervalUpToTheBurst() {
+
+        for (int i = 0; i < 3; i++) {
+            buckets.tryAcquire("client", START);
+        }
+
+        assertThat(buckets.tryAcquire("client", START + 100 * MS)).isZero();
+        assertThat(buckets.tryAcquire("client", START + 100 * MS)).isEqualTo(100 * MS);
+
+        long idle = START + 10_000 * MS;
+        assertThat(buckets.tryAcquire("client", idle)).isZero();
+        assertThat(buckets.tryAcquire("client", idle)).isZero();
+        assertThat(buckets.tryAcquire("client", idle)).isZero();
+        assertThat(buckets.tryAcquire("client", idle)).isEqualTo(100 * MS);
+
+    }
+
+    @Test
+    void clientsHaveBucketsOfTheirOwn() {
+
+        for (int i = 0; i < 3; i++) {
+            buckets.tryAcquire("first", START);
+        }
+
+        assertThat(buckets.tryAcquire("first", START)).isPositive();
+        assertThat(buckets.tryAcquire("second", START)).isZero();
+
+    }
+
+    @Test
+    void sweepRemovesOnlyRefilledBuckets() {
+
+        buckets.tryAcquire("idle", START);
+        for (int i = 0; i < 3; i++) {
+            buckets.tryAcquire("busy", START + 500 * MS);
+        }
+
+        buckets.sweep(START + 500 * MS);
+
+        assertThat(buckets.size()).isEqualTo(1);
+        assertThat(buckets.tryAcquire("busy", START + 500 * MS)).isEqualTo(100 * MS);
+
+    }
+
+    @Test
+    void retryAfterIsRoundedUpToWholeSecondsAndIsAtLeastOne() {
+
+        assertThat(RateLimitFilter.retryAfterSeconds(1)).isEqualTo(1);
+        assertThat(RateLimitFilter.retryAfterSeconds(100 * MS)).isEqualTo(1);
+        assertThat(RateLimitFilter.retryAfterSeconds(1_000 * MS)).isEqualTo(1);
+        assertThat(RateLimitFilter.retryAfterSeconds(1_001 * MS)).isEqualTo(2);
+
+    }
+
+}
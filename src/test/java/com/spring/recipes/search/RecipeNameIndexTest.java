@@ -0,0 +1,123 @@
+package com.spring.recipes.search;
+
+import com.spring.recipes.entities.Recipe;
+import com.spring.recipes.entities.user.User;
+import com.spring.recipes.repo.RecipeRepository;
+import com.spring.recipes.repo.UserRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Searches recipe names through the {@link RecipeNameIndex}, built by streaming recipes persisted behind its back.
+ *
+ * @author Alex Giazitzis
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:nameindex;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.sql.init.mode=never"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RecipeNameIndexTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2022, 1, 1, 12, 0);
+
+    @Autowired
+    RecipeNameIndex recipeNameIndex;
+
+    @Autowired
+    RecipeRepository recipeRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    Map<String, Long> ids = new HashMap<>();
+
+    @BeforeAll
+    void seed() {
+
+        User user = new User();
+        user.setEmail("names@example.com");
+        user.setPassword("password");
+        user.setRole("ROLE_USER");
+        User author = userRepository.save(user);
+
+        save(author, "Pancakes", DAY.minusDays(3));
+        save(author, "Japanese curry", DAY.minusDays(1));
+        save(author, "Pan-fried trout", DAY);
+        save(author, "Spanish omelette", DAY);
+        save(author, "Scones", DAY.minusDays(2));
+
+        recipeNameIndex.build();
+
+    }
+
+    @Test
+    void trigramSearchIgnoresCaseAndReturnsTheNewestFirst() {
+
+        assertThat(recipeNameIndex.isReady()).isTrue();
+        assertThat(recipeNameIndex.search("pAn", Cursor.FIRST, 10))
+                .containsExactly(ids.get("Spanish omelette"), ids.get("Pan-fried trout"), ids.get("Japanese curry"),
+                                 ids.get("Pancakes"));
+        assertThat(recipeNameIndex.search("cake", Cursor.FIRST, 10)).containsExactly(ids.get("Pancakes"));
+        assertThat(recipeNameIndex.search("pizza", Cursor.FIRST, 10)).isEmpty();
+
+    }
+
+    @Test
+    void needlesShorterThanATrigramScanEveryName() {
+
+        assertThat(recipeNameIndex.search("s", Cursor.FIRST, 10))
+                .containsExactly(ids.get("Spanish omelette"), ids.get("Japanese curry"), ids.get("Scones"),
+                                 ids.get("Pancakes"));
+        assertThat(recipeNameIndex.search("", Cursor.FIRST, 10)).hasSize(5);
+
+    }
+
+    @Test
+    void pagesStartAfterTheCursorAndHoldAtMostTheLimit() {
+
+        List<Long> first = recipeNameIndex.search("an", Cursor.FIRST, 2);
+        assertThat(first).containsExactly(ids.get("Spanish omelette"), ids.get("Pan-fried trout"));
+
+        Cursor after = Cursor.of(DAY, first.get(1));
+        assertThat(recipeNameIndex.search("an", after, 2))
+                .containsExactly(ids.get("Japanese curry"), ids.get("Pancakes"));
+
+    }
+
+    @Test
+    void writesAreSearchableAtOnce() {
+
+        recipeNameIndex.put(-1L, "Banana bread", DAY.plusDays(1));
+        try {
+            assertThat(recipeNameIndex.search("ana", Cursor.FIRST, 1)).containsExactly(-1L);
+        } finally {
+            recipeNameIndex.remove(-1L);
+        }
+        assertThat(recipeNameIndex.search("banana", Cursor.FIRST, 10)).isEmpty();
+
+    }
+
+    private void save(final User author, final String name, final LocalDateTime date) {
+
+        Recipe recipe = new Recipe();
+        recipe.setAuthor(author);
+        recipe.setName(name);
+        recipe.setCategory("Test");
+        recipe.setDate(date);
+        ids.put(name, recipeRepository.save(recipe).getId());
+
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.spring.recipes.services;
+
+import com.spring.recipes.dto.ImportResultDto;
+import com.spring.recipes.entities.user.User;
+import com.spring.recipes.repo.RecipeRepository;
+import com.spring.recipes.repo.UserRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Imports recipes through the {@link RecipeImportService}, a chunk of which can't be persisted.
+ *
+ * @author Alex Giazitzis
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:import;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.sql.init.mode=never",
+        "recipes.import.chunk-size=2"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RecipeImportServiceTest {
+
+    @Autowired
+    RecipeImportService recipeImportService;
+
+    @Autowired
+    RecipeRepository recipeRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    User author;
+
+    @BeforeAll
+    void seed() {
+
+        User user = new User();
+        user.setEmail("import@example.com");
+        user.setPassword("password");
+        user.setRole("ROLE_USER");
+        author = userRepository.save(user);
+
+    }
+
+    @Test
+    void chunkThatCantBePersistedFailsAloneAndTheOthersGetTheirIds() throws IOException {
+
+        String body = String.join("\n",
+                                  recipe("Pancakes"),
+                                  recipe("Waffles"),
+                                  recipe("Crepes"),
+                                  recipe("x".repeat(1_000)),
+                                  recipe("Scones"));
+        long before = recipeRepository.count();
+
+        List<ImportResultDto> results = recipeImportService.importRecipes(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), author);
+
+        assertThat(results).extracting(ImportResultDto::getIndex).containsExactly(0, 1, 2, 3, 4);
+        assertThat(results.get(0).getId()).isNotNull();
+        assertThat(results.get(1).getId()).isNotNull();
+        assertThat(results.get(2).getErrors()).containsExactly("Recipe could not be persisted.");
+        assertThat(results.get(3).getErrors()).containsExactly("Recipe could not be persisted.");
+        assertThat(results.get(4).getId()).isNotNull();
+        assertThat(recipeRepository.count()).isEqualTo(before + 3);
+
+    }
+
+    private static String recipe(final String name) {
+
+        return "{\"name\":\"" + name + "\",\"category\":\"Breakfast\",\"description\":\"Sweet\"," +
+               "\"ingredients\":[\"flour\",\"milk\"],\"directions\":[\"mix\",\"cook\"]}";
+
+    }
+
+}
@@ -0,0 +1,124 @@
+package com.spring.recipes.services;
+
+import com.spring.recipes.dto.RecipeDto;
+import com.spring.recipes.entities.user.User;
+import com.spring.recipes.repo.UserRepository;
+import com.spring.recipes.search.Cursor;
+import com.spring.recipes.search.KeysetPage;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the statements the {@link RecipeService} sends to the database, through the Hibernate {@link Statistics}.
+ *
+ * @author Alex Giazitzis
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:statements;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.sql.init.mode=never",
+        "recipes.statistics.enabled=true",
+        "recipes.search.result-cache.enabled=false"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RecipeServiceStatementTest {
+
+    private static final int RECIPES = 30;
+    private static final int LIMIT   = 20;
+
+    @Autowired
+    RecipeService recipeService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    User       author;
+    Statistics statistics;
+
+    @BeforeAll
+    void seed() {
+
+        User user = new User();
+        user.setEmail("statements@example.com");
+        user.setPassword("password");
+        user.setRole("ROLE_USER");
+        author = userRepository.save(user);
+
+        List<RecipeDto> recipes = new ArrayList<>();
+        for (int i = 0; i < RECIPES; i++) {
+            recipes.add(recipe("Chocolate cake " + i, "Dessert"));
+        }
+        recipeService.saveAll(recipes, author);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+    }
+
+    @BeforeEach
+    void clearStatistics() {
+
+        statistics.clear();
+
+    }
+
+    @Test
+    void categoryPageIsLoadedInOneStatement() {
+
+        KeysetPage<RecipeDto> page = recipeService.findRecipesInCategory("dessert", Cursor.FIRST, LIMIT);
+
+        assertThat(page.getContent()).hasSize(LIMIT)
+                                     .allSatisfy(dto -> {
+                                         assertThat(dto.getIngredients()).hasSize(3);
+                                         assertThat(dto.getDirections()).hasSize(2);
+                                     });
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+    }
+
+    @Test
+    void namePageIsLoadedInOneStatement() {
+
+        KeysetPage<RecipeDto> page = recipeService.findRecipesWithNameContaining("cake", Cursor.FIRST, LIMIT);
+
+        assertThat(page.getContent()).hasSize(LIMIT)
+                                     .allSatisfy(dto -> assertThat(dto.getIngredients()).hasSize(3));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+    }
+
+    /**
+     * The ids reserved while seeding cover the recipe, so saving it needs no call to the sequence.
+     */
+    @Test
+    void recipeIsSavedWithOnlyItsInsert() {
+
+        recipeService.save(recipe("Lemon tart", "Pastry"), author.getId());
+
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+    }
+
+    private static RecipeDto recipe(final String name, final String category) {
+
+        return new RecipeDto(name, category, "A " + name.toLowerCase(), List.of("flour", "sugar", "cocoa"), List.of("mix", "bake"));
+
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.spring.recipes.timing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Records nested {@link Phase}s in a {@link RequestTiming} and checks that their times don't overlap.
+ *
+ * @author Alex Giazitzis
+ */
+class RequestTimingTest {
+
+    @AfterEach
+    void end() {
+
+        RequestTiming.end();
+
+    }
+
+    @Test
+    void timeRecordedInsideAnotherPhaseIsLeftOutOfIt() {
+
+        RequestTiming timing = RequestTiming.begin();
+
+        RequestTiming.time(Phase.AUTH, () -> RequestTiming.time(Phase.DB, () -> sleep(20)));
+
+        String header = timing.toServerTiming(0);
+        assertThat(duration(header, Phase.DB)).isGreaterThanOrEqualTo(20);
+        assertThat(duration(header, Phase.AUTH)).isBetween(0.0, 20.0);
+
+    }
+
+    @Test
+    void nestedPhasesOnlyLeaveOutTheirOwnTime() {
+
+        RequestTiming timing = RequestTiming.begin();
+
+        RequestTiming.time(Phase.AUTH, () -> {
+            sleep(20);
+            return RequestTiming.time(Phase.MAPPING, () -> RequestTiming.time(Phase.DB, () -> sleep(20)));
+        });
+
+        String header = timing.toServerTiming(0);
+        assertThat(duration(header, Phase.AUTH)).isBetween(20.0, 40.0);
+        assertThat(duration(header, Phase.MAPPING)).isBetween(0.0, 20.0);
+        assertThat(duration(header, Phase.DB)).isGreaterThanOrEqualTo(20);
+
+    }
+
+    @Test
+    void responseBodyIsReportedWhateverItsFormat() {
+
+        RequestTiming timing = RequestTiming.begin();
+        timing.startSerialization();
+
+        assertThat(timing.toServerTiming(timing.finish())).containsPattern("body;dur=\\d+\\.\\d{2}, total;dur=");
+
+    }
+
+    private static double duration(final String header, final Phase phase) {
+
+        String prefix = phase.metric + ";dur=";
+        String rest = header.substring(header.indexOf(prefix) + prefix.length());
+        return Double.parseDouble(rest.split("[,;]", 2)[0]);
+
+    }
+
+    private static Void sleep(final long millis) {
+
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+
+    }
+
+}